@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.api.event;
+
+import java.util.List;
+
+import org.jetbrains.annotations.ApiStatus;
+
+import net.fabricmc.fabric.impl.base.event.EventProfilerImpl;
+
+/**
+ * Per-listener profiling of the events created by {@link EventFactory}.
+ *
+ * <p>Profiling is disabled by default, and can be enabled by setting the {@code fabric.event.profile} system property to {@code true}.
+ * When enabled, every listener registered to an array-backed event is wrapped
+ * to record how often it is called, how long it takes, and how much memory it allocates.
+ * Only listeners of public functional interfaces are profiled, and the time and allocations of nested events
+ * are counted for their own listeners rather than for the listener that fired them.
+ * When disabled, listeners are registered as-is and profiling has no cost.
+ *
+ * <p>Statistics are recorded since the listeners were registered, or since the last call to {@link #reset}.
+ * Listeners of the same mod, listener type and class share their statistics, so the listeners that events
+ * of short-lived objects register for every instance, such as screens, are aggregated.
+ */
+@ApiStatus.Experimental
+public final class EventProfiler {
+	private EventProfiler() {
+	}
+
+	/**
+	 * Returns whether event listeners are being profiled. This does not change during the lifetime of the game.
+	 */
+	public static boolean isEnabled() {
+		return EventProfilerImpl.ENABLED;
+	}
+
+	/**
+	 * Returns a snapshot of the statistics of every profiled listener, sorted by decreasing total time.
+	 * Returns an empty list if profiling is {@linkplain #isEnabled disabled}.
+	 */
+	public static List<ListenerStats> getListenerStats() {
+		return EventProfilerImpl.snapshot();
+	}
+
+	/**
+	 * Resets the statistics of every profiled listener to zero.
+	 */
+	public static void reset() {
+		EventProfilerImpl.reset();
+	}
+
+	/**
+	 * Statistics of the event listeners of a mod, listener type and listener class.
+	 *
+	 * @param modId the ID of the mod that owns the listener class, or {@code "unknown"} if it could not be determined
+	 * @param listenerType the listener interface, which usually identifies the event
+	 * @param listenerClass the name of the class of the listener
+	 * @param calls how many times the listeners were called
+	 * @param totalNanos the total time spent in the listeners, in nanoseconds
+	 * @param allocatedBytes the total memory allocated by the listeners on the calling thread, in bytes,
+	 *                       or {@code -1} if the JVM does not support measuring thread allocations
+	 */
+	public record ListenerStats(String modId, Class<?> listenerType, String listenerClass, long calls, long totalNanos, long allocatedBytes) {
+	}
+}
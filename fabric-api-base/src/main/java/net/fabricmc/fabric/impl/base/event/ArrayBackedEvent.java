@@ -32,6 +32,7 @@ import net.fabricmc.fabric.impl.base.toposort.NodeSorting;
 
 class ArrayBackedEvent<T> extends Event<T> {
 	private final Function<T[], T> invokerFactory;
+	private final boolean unrolledInvokers;
 	private final Object lock = new Object();
 	private T[] handlers;
 	/**
@@ -44,14 +45,34 @@ class ArrayBackedEvent<T> extends Event<T> {
 	private final List<EventPhaseData<T>> sortedPhases = new ArrayList<>();
 
 	@SuppressWarnings("unchecked")
-	ArrayBackedEvent(Class<? super T> type, Function<T[], T> invokerFactory) {
+	ArrayBackedEvent(Class<? super T> type, Function<T[], T> invokerFactory, boolean unrolledInvokers) {
 		this.invokerFactory = invokerFactory;
+		this.unrolledInvokers = unrolledInvokers;
 		this.handlers = (T[]) Array.newInstance(type, 0);
 		update();
 	}
 
 	void update() {
-		this.invoker = invokerFactory.apply(handlers);
+		T[] invokerHandlers = handlers;
+
+		// Each update defines a new hidden class, see UnrolledInvokerGenerator for the cost.
+		if (unrolledInvokers && handlers.length > 1 && handlers.length <= UnrolledInvokerGenerator.MAX_LISTENERS) {
+			Class<?> listenerType = handlers.getClass().getComponentType();
+
+			if (UnrolledInvokerGenerator.supports(listenerType)) {
+				T unrolled = UnrolledInvokerGenerator.generate(listenerType, handlers);
+
+				if (unrolled != null) {
+					// Pass a single listener that calls all the others, so that the loop of the invoker factory sees only one class.
+					@SuppressWarnings("unchecked")
+					T[] single = (T[]) Array.newInstance(listenerType, 1);
+					single[0] = unrolled;
+					invokerHandlers = single;
+				}
+			}
+		}
+
+		this.invoker = invokerFactory.apply(invokerHandlers);
 	}
 
 	@Override
@@ -64,6 +85,10 @@ class ArrayBackedEvent<T> extends Event<T> {
 		Objects.requireNonNull(phaseIdentifier, "Tried to register a listener for a null phase!");
 		Objects.requireNonNull(listener, "Tried to register a null listener!");
 
+		if (EventProfilerImpl.ENABLED) {
+			listener = EventProfilerImpl.wrap(handlers.getClass().getComponentType(), listener);
+		}
+
 		synchronized (lock) {
 			getOrCreatePhase(phaseIdentifier, true).addListener(listener);
 			rebuildInvoker(handlers.length + 1);
@@ -27,6 +27,7 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.function.Function;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.MapMaker;
 
 import net.minecraft.util.Identifier;
@@ -34,6 +35,12 @@ import net.minecraft.util.Identifier;
 import net.fabricmc.fabric.api.event.Event;
 
 public final class EventFactoryImpl {
+	/**
+	 * When enabled, events with {@code void} listeners are invoked through generated classes
+	 * that call each listener from its own call site, instead of from the single call site of the invoker loop.
+	 * See {@link UnrolledInvokerGenerator}.
+	 */
+	static final boolean UNROLLED_INVOKERS = Boolean.getBoolean("fabric.event.unrolledInvokers");
 	private static final Set<ArrayBackedEvent<?>> ARRAY_BACKED_EVENTS
 			= Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
 
@@ -44,7 +51,16 @@ public final class EventFactoryImpl {
 	}
 
 	public static <T> Event<T> createArrayBacked(Class<? super T> type, Function<T[], T> invokerFactory) {
-		ArrayBackedEvent<T> event = new ArrayBackedEvent<>(type, invokerFactory);
+		return createArrayBacked(type, invokerFactory, UNROLLED_INVOKERS);
+	}
+
+	/**
+	 * Creates an event that uses unrolled invokers or not regardless of {@link #UNROLLED_INVOKERS},
+	 * so that tests can compare both in the same run.
+	 */
+	@VisibleForTesting
+	public static <T> Event<T> createArrayBacked(Class<? super T> type, Function<T[], T> invokerFactory, boolean unrolledInvokers) {
+		ArrayBackedEvent<T> event = new ArrayBackedEvent<>(type, invokerFactory, unrolledInvokers);
 		ARRAY_BACKED_EVENTS.add(event);
 		return event;
 	}
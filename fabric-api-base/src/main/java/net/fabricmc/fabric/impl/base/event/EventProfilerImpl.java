@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.base.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.fabric.api.event.EventProfiler;
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+
+public final class EventProfilerImpl {
+	public static final boolean ENABLED = Boolean.getBoolean("fabric.event.profile");
+	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-api-base");
+	private static final String UNKNOWN_MOD = "unknown";
+	private static final String CLASS_NAME = Type.getInternalName(EventProfilerImpl.class) + "$Generated";
+	private static final String PROFILED_NAME = Type.getInternalName(ProfiledListener.class);
+	private static final String PROFILED_DESC = Type.getDescriptor(ProfiledListener.class);
+	private static final String STACK_DESC = Type.getDescriptor(CallStack.class);
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	/**
+	 * {@code null} if the JVM can't measure per-thread allocations.
+	 */
+	private static final com.sun.management.ThreadMXBean THREAD_BEAN = getThreadBean();
+	private static final ThreadLocal<CallStack> CALL_STACK = ThreadLocal.withInitial(CallStack::new);
+	/**
+	 * Statistics of the listeners of each mod, listener type and listener class. Listeners of per-instance events
+	 * are registered again for every instance, so they share statistics instead of being held forever.
+	 */
+	private static final Map<StatsKey, ProfiledListener> LISTENERS = new ConcurrentHashMap<>();
+	/**
+	 * Owning mod of each class that declares listeners, and of each code source.
+	 * Finding the owner of a code source probes every mod, so it is only done for the first class loaded from it.
+	 */
+	private static final Map<Class<?>, String> CLASS_OWNERS = new ConcurrentHashMap<>();
+	private static final Map<URL, String> CODE_SOURCE_OWNERS = new ConcurrentHashMap<>();
+
+	private EventProfilerImpl() {
+	}
+
+	/**
+	 * Wraps a listener so that its calls are recorded. Must only be called when profiling is {@linkplain #ENABLED enabled}.
+	 *
+	 * <p>The wrapper is a generated class that calls the listener directly, so that only the listener itself is measured.
+	 * Listeners of types that generated classes can't implement, such as non-public interfaces, are returned as-is.
+	 */
+	static <T> T wrap(Class<?> listenerType, T listener) {
+		Method method = UnrolledInvokerGenerator.findListenerMethod(listenerType);
+
+		if (method == null) {
+			return listener;
+		}
+
+		StatsKey key = new StatsKey(getOwner(listener.getClass()), listenerType, listener.getClass().getName());
+		ProfiledListener profiled = LISTENERS.computeIfAbsent(key, ProfiledListener::new);
+
+		try {
+			byte[] bytes = generateClass(listenerType, method);
+			MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(bytes, new Object[] { listener, profiled }, true);
+			@SuppressWarnings("unchecked")
+			T wrapper = (T) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+			return wrapper;
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to generate a profiling wrapper for listener type {}, the listener will not be profiled.", listenerType.getName(), t);
+			return listener;
+		}
+	}
+
+	public static List<EventProfiler.ListenerStats> snapshot() {
+		List<EventProfiler.ListenerStats> stats = new ArrayList<>(LISTENERS.size());
+
+		for (ProfiledListener listener : LISTENERS.values()) {
+			stats.add(listener.toStats());
+		}
+
+		stats.sort(Comparator.comparingLong(EventProfiler.ListenerStats::totalNanos).reversed());
+		return stats;
+	}
+
+	public static void reset() {
+		for (ProfiledListener listener : LISTENERS.values()) {
+			listener.calls.reset();
+			listener.nanos.reset();
+			listener.allocatedBytes.reset();
+		}
+	}
+
+	private static com.sun.management.ThreadMXBean getThreadBean() {
+		if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+			bean.setThreadAllocatedMemoryEnabled(true);
+			return bean;
+		}
+
+		return null;
+	}
+
+	private static long allocatedBytes() {
+		return THREAD_BEAN == null ? 0 : THREAD_BEAN.getCurrentThreadAllocatedBytes();
+	}
+
+	/**
+	 * Finds the mod containing the class of a listener.
+	 * Lambdas and anonymous classes are resolved through their nest host, which is the class that declares them.
+	 */
+	private static String getOwner(Class<?> listenerClass) {
+		return CLASS_OWNERS.computeIfAbsent(listenerClass.getNestHost(), host -> {
+			CodeSource codeSource = host.getProtectionDomain().getCodeSource();
+
+			if (codeSource == null || codeSource.getLocation() == null) {
+				return findOwner(host);
+			}
+
+			return CODE_SOURCE_OWNERS.computeIfAbsent(codeSource.getLocation(), location -> findOwner(host));
+		});
+	}
+
+	private static String findOwner(Class<?> host) {
+		String classFile = host.getName().replace('.', '/') + ".class";
+
+		for (ModContainer mod : FabricLoader.getInstance().getAllMods()) {
+			if (mod.findPath(classFile).isPresent()) {
+				return mod.getMetadata().getId();
+			}
+		}
+
+		return UNKNOWN_MOD;
+	}
+
+	/**
+	 * Generates a class that implements the listener type by calling {@code profiled.enter()}, the listener, and then {@code profiled.exit()}.
+	 * The listener and the {@link ProfiledListener} are stored in {@code static final} fields, so the JIT treats them as constants.
+	 */
+	private static byte[] generateClass(Class<?> listenerType, Method method) {
+		String listenerName = Type.getInternalName(listenerType);
+		String listenerDesc = Type.getDescriptor(listenerType);
+		String methodDesc = Type.getMethodDescriptor(method);
+
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS | ClassWriter.COMPUTE_FRAMES) {
+			@Override
+			protected String getCommonSuperClass(String type1, String type2) {
+				// Only reached when merging the caught exception, don't load classes for it.
+				return "java/lang/Object";
+			}
+		};
+		cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, CLASS_NAME, null, "java/lang/Object", new String[] { listenerName });
+		cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "listener", listenerDesc, null, null).visitEnd();
+		cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "profiled", PROFILED_DESC, null, null).visitEnd();
+
+		// Static initializer: copy the listener and the statistics out of the class data into the static final fields.
+		MethodVisitor clinit = cw.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+		clinit.visitCode();
+		clinit.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;", false);
+		clinit.visitLdcInsn("_");
+		clinit.visitLdcInsn(Type.getType(Object.class));
+		clinit.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "classData", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;", false);
+		clinit.visitTypeInsn(Opcodes.CHECKCAST, "[Ljava/lang/Object;");
+		clinit.visitVarInsn(Opcodes.ASTORE, 0);
+		clinit.visitVarInsn(Opcodes.ALOAD, 0);
+		clinit.visitLdcInsn(0);
+		clinit.visitInsn(Opcodes.AALOAD);
+		clinit.visitTypeInsn(Opcodes.CHECKCAST, listenerName);
+		clinit.visitFieldInsn(Opcodes.PUTSTATIC, CLASS_NAME, "listener", listenerDesc);
+		clinit.visitVarInsn(Opcodes.ALOAD, 0);
+		clinit.visitLdcInsn(1);
+		clinit.visitInsn(Opcodes.AALOAD);
+		clinit.visitTypeInsn(Opcodes.CHECKCAST, PROFILED_NAME);
+		clinit.visitFieldInsn(Opcodes.PUTSTATIC, CLASS_NAME, "profiled", PROFILED_DESC);
+		clinit.visitInsn(Opcodes.RETURN);
+		clinit.visitMaxs(0, 0);
+		clinit.visitEnd();
+
+		MethodVisitor init = cw.visitMethod(0, "<init>", "()V", null, null);
+		init.visitCode();
+		init.visitVarInsn(Opcodes.ALOAD, 0);
+		init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		init.visitInsn(Opcodes.RETURN);
+		init.visitMaxs(0, 0);
+		init.visitEnd();
+
+		// Functional method: CallStack stack = profiled.enter(); try { result = listener.method(args); } finally { profiled.exit(stack); }
+		Type[] argumentTypes = Type.getArgumentTypes(methodDesc);
+		int stackSlot = 1;
+
+		for (Type argumentType : argumentTypes) {
+			stackSlot += argumentType.getSize();
+		}
+
+		Label tryStart = new Label();
+		Label tryEnd = new Label();
+		Label handler = new Label();
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), methodDesc, null, null);
+		mv.visitCode();
+		mv.visitTryCatchBlock(tryStart, tryEnd, handler, null);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, CLASS_NAME, "profiled", PROFILED_DESC);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, PROFILED_NAME, "enter", "()" + STACK_DESC, false);
+		mv.visitVarInsn(Opcodes.ASTORE, stackSlot);
+		mv.visitLabel(tryStart);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, CLASS_NAME, "listener", listenerDesc);
+		int slot = 1;
+
+		for (Type argumentType : argumentTypes) {
+			mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), slot);
+			slot += argumentType.getSize();
+		}
+
+		mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, listenerName, method.getName(), methodDesc, true);
+		mv.visitLabel(tryEnd);
+		// The result, if any, stays on the operand stack below the exit call.
+		mv.visitFieldInsn(Opcodes.GETSTATIC, CLASS_NAME, "profiled", PROFILED_DESC);
+		mv.visitVarInsn(Opcodes.ALOAD, stackSlot);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, PROFILED_NAME, "exit", "(" + STACK_DESC + ")V", false);
+		mv.visitInsn(Type.getReturnType(methodDesc).getOpcode(Opcodes.IRETURN));
+		mv.visitLabel(handler);
+		mv.visitFieldInsn(Opcodes.GETSTATIC, CLASS_NAME, "profiled", PROFILED_DESC);
+		mv.visitVarInsn(Opcodes.ALOAD, stackSlot);
+		mv.visitMethodInsn(Opcodes.INVOKEVIRTUAL, PROFILED_NAME, "exit", "(" + STACK_DESC + ")V", false);
+		mv.visitInsn(Opcodes.ATHROW);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+
+	/**
+	 * The profiled listeners being called on a thread. A listener can fire other events,
+	 * so the time and allocations of the nested listeners are subtracted from the listener that called them.
+	 */
+	static final class CallStack {
+		private long[] startNanos = new long[8];
+		private long[] startBytes = new long[8];
+		private long[] nestedNanos = new long[8];
+		private long[] nestedBytes = new long[8];
+		private int depth;
+
+		void push() {
+			if (depth == startNanos.length) {
+				int length = depth * 2;
+				startNanos = Arrays.copyOf(startNanos, length);
+				startBytes = Arrays.copyOf(startBytes, length);
+				nestedNanos = Arrays.copyOf(nestedNanos, length);
+				nestedBytes = Arrays.copyOf(nestedBytes, length);
+			}
+
+			nestedNanos[depth] = 0;
+			nestedBytes[depth] = 0;
+			startBytes[depth] = allocatedBytes();
+			// Read the clock last and first in pop, to measure as little of the profiler as possible.
+			startNanos[depth] = System.nanoTime();
+			depth++;
+		}
+
+		void pop(ProfiledListener listener) {
+			long endNanos = System.nanoTime();
+			long endBytes = allocatedBytes();
+			depth--;
+			long elapsedNanos = endNanos - startNanos[depth];
+			long allocated = endBytes - startBytes[depth];
+			listener.nanos.add(elapsedNanos - nestedNanos[depth]);
+			listener.allocatedBytes.add(allocated - nestedBytes[depth]);
+			listener.calls.increment();
+
+			if (depth > 0) {
+				nestedNanos[depth - 1] += elapsedNanos;
+				nestedBytes[depth - 1] += allocated;
+			}
+		}
+	}
+
+	/**
+	 * Identifies the listeners that share statistics. Only the name of the listener class is kept,
+	 * so that classes of listeners that are no longer registered can be unloaded.
+	 */
+	private record StatsKey(String modId, Class<?> listenerType, String listenerClass) {
+	}
+
+	/**
+	 * Statistics of the listeners of a {@link StatsKey}, updated by their generated wrappers.
+	 */
+	static final class ProfiledListener {
+		private final StatsKey key;
+		private final LongAdder calls = new LongAdder();
+		private final LongAdder nanos = new LongAdder();
+		private final LongAdder allocatedBytes = new LongAdder();
+
+		ProfiledListener(StatsKey key) {
+			this.key = key;
+		}
+
+		/**
+		 * Called by the generated wrapper before the listener.
+		 */
+		CallStack enter() {
+			CallStack stack = CALL_STACK.get();
+			stack.push();
+			return stack;
+		}
+
+		/**
+		 * Called by the generated wrapper after the listener, even if it threw.
+		 */
+		void exit(CallStack stack) {
+			stack.pop(this);
+		}
+
+		EventProfiler.ListenerStats toStats() {
+			return new EventProfiler.ListenerStats(key.modId(), key.listenerType(), key.listenerClass(), calls.sum(), nanos.sum(), THREAD_BEAN == null ? -1 : allocatedBytes.sum());
+		}
+	}
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.base.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jetbrains.annotations.Nullable;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Generates hidden classes that call a fixed list of listeners one after the other, with one call site per listener.
+ *
+ * <p>The array loop in a typical invoker has a single call site that sees every listener class registered to the event,
+ * which quickly becomes megamorphic and prevents the JIT from inlining the listeners.
+ * The generated class instead stores each listener in its own {@code static final} field (which the JIT treats as a constant),
+ * and calls each of them from a dedicated call site.
+ *
+ * <p>Only listener interfaces with a single abstract method returning {@code void} are supported:
+ * for these the generated class can be passed to the invoker factory as a single listener that forwards to every real listener,
+ * which keeps any logic of the invoker factory around the loop intact.
+ * Events that return a value usually stop at the first listener that returns a non-default value, which cannot be unrolled that way.
+ *
+ * <p>The listeners are constants of the generated class, so a new class is defined every time the listeners of an event change,
+ * that is for each registration or phase ordering. An event that reaches {@code n} listeners one registration at a time
+ * generates {@code n - 1} classes with a total of O(n²) call sites, up to {@link #MAX_LISTENERS}.
+ * Listeners are almost always registered during mod initialization, so this is a startup cost only.
+ * The classes are not strongly linked to their class loader, and are unloaded once the invokers using them are replaced.
+ */
+final class UnrolledInvokerGenerator {
+	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-api-base");
+	/**
+	 * Events with more listeners than this keep using the array loop, to keep the generated methods small enough to be compiled.
+	 */
+	static final int MAX_LISTENERS = 128;
+	private static final String CLASS_NAME = Type.getInternalName(UnrolledInvokerGenerator.class) + "$Generated";
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	/**
+	 * Cache of the functional method for each listener type,
+	 * or {@link #UNSUPPORTED} if generated classes can't implement the type.
+	 */
+	private static final Map<Class<?>, Method> FUNCTIONAL_METHODS = new ConcurrentHashMap<>();
+	/**
+	 * Listener types for which the generation of an unrolled invoker failed.
+	 */
+	private static final Set<Class<?>> FAILED_TYPES = ConcurrentHashMap.newKeySet();
+	private static final Method UNSUPPORTED;
+
+	static {
+		try {
+			UNSUPPORTED = Object.class.getMethod("toString");
+		} catch (NoSuchMethodException e) {
+			throw new AssertionError(e);
+		}
+	}
+
+	private UnrolledInvokerGenerator() {
+	}
+
+	/**
+	 * Returns whether listeners of the given type can be combined into a generated listener.
+	 */
+	static boolean supports(Class<?> listenerType) {
+		Method method = getFunctionalMethod(listenerType);
+		return method != UNSUPPORTED && method.getReturnType() == void.class && !FAILED_TYPES.contains(listenerType);
+	}
+
+	/**
+	 * Returns the single abstract method of a listener type, if a class generated in this package can implement it.
+	 *
+	 * @return the functional method, or {@code null} if the type is not a public functional interface
+	 */
+	@Nullable
+	static Method findListenerMethod(Class<?> listenerType) {
+		Method method = getFunctionalMethod(listenerType);
+		return method == UNSUPPORTED ? null : method;
+	}
+
+	/**
+	 * Creates a listener that calls each of the given listeners in order.
+	 * {@link #supports} must have returned {@code true} for the listener type.
+	 *
+	 * @return the combined listener, or {@code null} if the class could not be generated
+	 */
+	static <T> T generate(Class<?> listenerType, T[] listeners) {
+		Method method = getFunctionalMethod(listenerType);
+
+		try {
+			byte[] bytes = generateClass(listenerType, method, listeners.length);
+			MethodHandles.Lookup hidden = LOOKUP.defineHiddenClassWithClassData(bytes, listeners.clone(), true);
+			@SuppressWarnings("unchecked")
+			T invoker = (T) hidden.findConstructor(hidden.lookupClass(), MethodType.methodType(void.class)).invoke();
+			return invoker;
+		} catch (Throwable t) {
+			LOGGER.warn("Failed to generate an unrolled invoker for listener type {}, falling back to the array-backed invoker.", listenerType.getName(), t);
+			FAILED_TYPES.add(listenerType);
+			return null;
+		}
+	}
+
+	private static Method getFunctionalMethod(Class<?> listenerType) {
+		return FUNCTIONAL_METHODS.computeIfAbsent(listenerType, UnrolledInvokerGenerator::findFunctionalMethod);
+	}
+
+	private static Method findFunctionalMethod(Class<?> listenerType) {
+		if (!listenerType.isInterface() || !isAccessible(listenerType)) {
+			return UNSUPPORTED;
+		}
+
+		Method functionalMethod = null;
+
+		for (Method m : listenerType.getMethods()) {
+			if (!Modifier.isAbstract(m.getModifiers())) continue;
+
+			try {
+				// Abstract redeclarations of Object methods such as equals are implemented by Object.
+				Object.class.getMethod(m.getName(), m.getParameterTypes());
+				continue;
+			} catch (NoSuchMethodException ignored) {
+				// Not an Object method.
+			}
+
+			if (functionalMethod != null) {
+				return UNSUPPORTED;
+			}
+
+			functionalMethod = m;
+		}
+
+		if (functionalMethod == null || !isAccessible(functionalMethod.getReturnType())) {
+			return UNSUPPORTED;
+		}
+
+		for (Class<?> parameterType : functionalMethod.getParameterTypes()) {
+			if (!isAccessible(parameterType)) {
+				return UNSUPPORTED;
+			}
+		}
+
+		return functionalMethod;
+	}
+
+	/**
+	 * Checks that the generated class, which lives in this package and this class loader, can link against the given type.
+	 */
+	private static boolean isAccessible(Class<?> type) {
+		while (type.isArray()) {
+			type = type.getComponentType();
+		}
+
+		if (type.isPrimitive()) {
+			return true;
+		}
+
+		if (!Modifier.isPublic(type.getModifiers())) {
+			return false;
+		}
+
+		try {
+			return Class.forName(type.getName(), false, UnrolledInvokerGenerator.class.getClassLoader()) == type;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	private static byte[] generateClass(Class<?> listenerType, Method method, int listenerCount) {
+		String listenerName = Type.getInternalName(listenerType);
+		String listenerDesc = Type.getDescriptor(listenerType);
+		String methodDesc = Type.getMethodDescriptor(method);
+
+		// No branches are emitted, so no stack map frames are needed.
+		ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+		cw.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER | Opcodes.ACC_SYNTHETIC, CLASS_NAME, null, "java/lang/Object", new String[] { listenerName });
+
+		for (int i = 0; i < listenerCount; ++i) {
+			cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, "listener" + i, listenerDesc, null, null).visitEnd();
+		}
+
+		// Static initializer: copy the listeners out of the class data into the static final fields.
+		MethodVisitor clinit = cw.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+		clinit.visitCode();
+		clinit.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup", "()Ljava/lang/invoke/MethodHandles$Lookup;", false);
+		clinit.visitLdcInsn("_");
+		clinit.visitLdcInsn(Type.getType(Object.class));
+		clinit.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/invoke/MethodHandles", "classData", "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;", false);
+		clinit.visitTypeInsn(Opcodes.CHECKCAST, "[Ljava/lang/Object;");
+		clinit.visitVarInsn(Opcodes.ASTORE, 0);
+
+		for (int i = 0; i < listenerCount; ++i) {
+			clinit.visitVarInsn(Opcodes.ALOAD, 0);
+			clinit.visitLdcInsn(i);
+			clinit.visitInsn(Opcodes.AALOAD);
+			clinit.visitTypeInsn(Opcodes.CHECKCAST, listenerName);
+			clinit.visitFieldInsn(Opcodes.PUTSTATIC, CLASS_NAME, "listener" + i, listenerDesc);
+		}
+
+		clinit.visitInsn(Opcodes.RETURN);
+		clinit.visitMaxs(0, 0);
+		clinit.visitEnd();
+
+		MethodVisitor init = cw.visitMethod(0, "<init>", "()V", null, null);
+		init.visitCode();
+		init.visitVarInsn(Opcodes.ALOAD, 0);
+		init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+		init.visitInsn(Opcodes.RETURN);
+		init.visitMaxs(0, 0);
+		init.visitEnd();
+
+		// Functional method: one direct call per listener.
+		Type[] argumentTypes = Type.getArgumentTypes(methodDesc);
+		MethodVisitor mv = cw.visitMethod(Opcodes.ACC_PUBLIC, method.getName(), methodDesc, null, null);
+		mv.visitCode();
+
+		for (int i = 0; i < listenerCount; ++i) {
+			mv.visitFieldInsn(Opcodes.GETSTATIC, CLASS_NAME, "listener" + i, listenerDesc);
+			int slot = 1;
+
+			for (Type argumentType : argumentTypes) {
+				mv.visitVarInsn(argumentType.getOpcode(Opcodes.ILOAD), slot);
+				slot += argumentType.getSize();
+			}
+
+			mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, listenerName, method.getName(), methodDesc, true);
+		}
+
+		mv.visitInsn(Opcodes.RETURN);
+		mv.visitMaxs(0, 0);
+		mv.visitEnd();
+
+		cw.visitEnd();
+		return cw.toByteArray();
+	}
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.base.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.event.Event;
+import net.fabricmc.fabric.impl.base.event.EventFactoryImpl;
+
+/**
+ * Checks that events behave the same with and without unrolled invokers, below, at and above the listener limit.
+ */
+public class UnrolledInvokerTests {
+	private static final int[] LISTENER_COUNTS = {0, 1, 2, 128, 129};
+	private static final int MAX_UNROLLED_LISTENERS = 128;
+	private static final Identifier EARLY_PHASE = Identifier.of("fabric-api-base-testmod", "early");
+
+	@FunctionalInterface
+	public interface VoidListener {
+		void onEvent(List<Integer> calls, int value);
+	}
+
+	@FunctionalInterface
+	public interface IntListener {
+		int onEvent(List<Integer> calls, int value);
+	}
+
+	@Test
+	void testVoidListeners() {
+		for (int count : LISTENER_COUNTS) {
+			List<Integer> looped = invokeVoid(count, false, count);
+			// Supported events pass a single generated listener to the invoker factory.
+			List<Integer> unrolled = invokeVoid(count, true, count >= 2 && count <= MAX_UNROLLED_LISTENERS ? 1 : count);
+
+			assertEquals(expectedCalls(count, count, 7), looped, "looped calls with " + count + " listeners");
+			assertEquals(looped, unrolled, "unrolled calls with " + count + " listeners");
+		}
+	}
+
+	@Test
+	void testIntListeners() {
+		for (int count : LISTENER_COUNTS) {
+			// The listener in the middle returns a value, which stops the invoker.
+			int stop = count / 2;
+			List<Integer> looped = new ArrayList<>();
+			List<Integer> unrolled = new ArrayList<>();
+			int loopedResult = invokeInt(count, stop, false, looped);
+			int unrolledResult = invokeInt(count, stop, true, unrolled);
+
+			assertEquals(count == 0 ? 0 : stop + 1, loopedResult, "looped result with " + count + " listeners");
+			assertEquals(loopedResult, unrolledResult, "unrolled result with " + count + " listeners");
+			assertEquals(expectedCalls(count, stop + 1, 7), looped, "looped calls with " + count + " listeners");
+			assertEquals(looped, unrolled, "unrolled calls with " + count + " listeners");
+		}
+	}
+
+	/**
+	 * Invokes a void event twice with different arguments, and checks the number of listeners passed to the invoker factory.
+	 */
+	private static List<Integer> invokeVoid(int count, boolean unrolled, int expectedFactoryListeners) {
+		int[] factoryListeners = new int[1];
+		Event<VoidListener> event = EventFactoryImpl.createArrayBacked(VoidListener.class, listeners -> {
+			factoryListeners[0] = listeners.length;
+
+			return (calls, value) -> {
+				for (VoidListener listener : listeners) {
+					listener.onEvent(calls, value);
+				}
+			};
+		}, unrolled);
+
+		registerListeners(event, count, index -> (calls, value) -> calls.add(index * 1000 + value));
+
+		assertEquals(expectedFactoryListeners, factoryListeners[0],
+				"listeners passed to the invoker factory with " + count + " listeners, unrolled: " + unrolled);
+
+		List<Integer> firstCalls = new ArrayList<>();
+		event.invoker().onEvent(firstCalls, 9);
+		assertEquals(expectedCalls(count, count, 9), firstCalls, "first calls with " + count + " listeners, unrolled: " + unrolled);
+
+		List<Integer> calls = new ArrayList<>();
+		event.invoker().onEvent(calls, 7);
+		return calls;
+	}
+
+	private static int invokeInt(int count, int stop, boolean unrolled, List<Integer> calls) {
+		int[] factoryListeners = new int[1];
+		Event<IntListener> event = EventFactoryImpl.createArrayBacked(IntListener.class, listeners -> {
+			factoryListeners[0] = listeners.length;
+
+			return (c, value) -> {
+				for (IntListener listener : listeners) {
+					int result = listener.onEvent(c, value);
+
+					if (result != 0) {
+						return result;
+					}
+				}
+
+				return 0;
+			};
+		}, unrolled);
+
+		registerListeners(event, count, index -> (c, value) -> {
+			c.add(index * 1000 + value);
+			return index == stop ? index + 1 : 0;
+		});
+
+		// Listeners returning a value are never unrolled.
+		assertEquals(count, factoryListeners[0], "listeners passed to the invoker factory with " + count + " listeners, unrolled: " + unrolled);
+		return event.invoker().onEvent(calls, 7);
+	}
+
+	/**
+	 * Registers listeners that record their index when called. The first one is registered last, in an earlier phase,
+	 * so that the order comes from the sorted phases rather than from the registration order.
+	 */
+	private static <T> void registerListeners(Event<T> event, int count, ListenerFactory<T> factory) {
+		if (count == 0) {
+			return;
+		}
+
+		event.addPhaseOrdering(EARLY_PHASE, Event.DEFAULT_PHASE);
+
+		for (int i = 1; i < count; ++i) {
+			event.register(factory.create(i));
+		}
+
+		event.register(EARLY_PHASE, factory.create(0));
+	}
+
+	private static List<Integer> expectedCalls(int count, int called, int value) {
+		List<Integer> calls = new ArrayList<>();
+
+		for (int i = 0; i < called && i < count; ++i) {
+			calls.add(i * 1000 + value);
+		}
+
+		return calls;
+	}
+
+	private interface ListenerFactory<T> {
+		T create(int index);
+	}
+}
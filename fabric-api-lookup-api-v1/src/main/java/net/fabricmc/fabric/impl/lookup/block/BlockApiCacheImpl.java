@@ -24,6 +24,7 @@ import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerChunkEvents;
 import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.lookup.v1.block.BlockApiLookup;
 
@@ -44,8 +45,15 @@ public final class BlockApiCacheImpl<A, C> implements BlockApiCache<A, C> {
 	private BlockState lastState = null;
 	private BlockApiLookup.BlockApiProvider<A, C> cachedProvider = null;
 
+	/**
+	 * Whether this cache is registered to the world to receive invalidations.
+	 * Caches are unregistered when their chunk unloads, and register themselves again when they are next used.
+	 */
+	private boolean registered;
+
 	public BlockApiCacheImpl(BlockApiLookupImpl<A, C> lookup, ServerWorld world, BlockPos pos) {
 		((ServerWorldCache) world).fabric_registerCache(pos, this);
+		this.registered = true;
 		this.lookup = lookup;
 		this.world = world;
 		this.pos = pos.toImmutable();
@@ -58,6 +66,14 @@ public final class BlockApiCacheImpl<A, C> implements BlockApiCache<A, C> {
 		cachedProvider = null;
 	}
 
+	/**
+	 * Called when the chunk of this cache unloads, after the world has stopped tracking it.
+	 */
+	public void unregister() {
+		invalidate();
+		registered = false;
+	}
+
 	@Nullable
 	@Override
 	public A find(@Nullable BlockState state, C context) {
@@ -105,6 +121,11 @@ public final class BlockApiCacheImpl<A, C> implements BlockApiCache<A, C> {
 	@Override
 	@Nullable
 	public BlockEntity getBlockEntity() {
+		if (!registered) {
+			((ServerWorldCache) world).fabric_registerCache(pos, this);
+			registered = true;
+		}
+
 		if (!blockEntityCacheValid) {
 			cachedBlockEntity = world.getBlockEntity(pos);
 			blockEntityCacheValid = true;
@@ -136,5 +157,9 @@ public final class BlockApiCacheImpl<A, C> implements BlockApiCache<A, C> {
 		ServerBlockEntityEvents.BLOCK_ENTITY_UNLOAD.register((blockEntity, world) -> {
 			((ServerWorldCache) world).fabric_invalidateCache(blockEntity.getPos());
 		});
+
+		ServerChunkEvents.CHUNK_UNLOAD.register((world, chunk) -> {
+			((ServerWorldCache) world).fabric_unloadCaches(chunk.getPos());
+		});
 	}
 }
@@ -17,6 +17,7 @@
 package net.fabricmc.fabric.impl.lookup.block;
 
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 
 /**
  * Allows attachment of a BlockApiCache to a {@link net.minecraft.server.world.ServerWorld}.
@@ -25,4 +26,10 @@ public interface ServerWorldCache {
 	void fabric_registerCache(BlockPos pos, BlockApiCacheImpl<?, ?> cache);
 
 	void fabric_invalidateCache(BlockPos pos);
+
+	/**
+	 * Invalidates and unregisters all the caches in a chunk at once.
+	 * The caches that are still in use will register themselves again on their next query.
+	 */
+	void fabric_unloadCaches(ChunkPos chunkPos);
 }
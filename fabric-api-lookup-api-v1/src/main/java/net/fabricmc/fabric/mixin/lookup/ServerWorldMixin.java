@@ -19,31 +19,50 @@ package net.fabricmc.fabric.mixin.lookup;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
-import it.unimi.dsi.fastutil.objects.Object2ReferenceOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.Unique;
 
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 
 import net.fabricmc.fabric.impl.lookup.block.BlockApiCacheImpl;
 import net.fabricmc.fabric.impl.lookup.block.ServerWorldCache;
 
 @Mixin(ServerWorld.class)
 abstract class ServerWorldMixin implements ServerWorldCache {
+	/**
+	 * Caches grouped by chunk, then by position, so that all the caches of a chunk can be dropped at once when it unloads.
+	 * Cleared references are removed when the position is accessed again, when the chunk unloads, or by the periodic cleanup.
+	 */
+	@Unique
+	private final Long2ObjectMap<Long2ObjectMap<List<WeakReference<BlockApiCacheImpl<?, ?>>>>> apiLookupCaches = new Long2ObjectOpenHashMap<>();
+	/**
+	 * Number of positions in apiLookupCaches.
+	 */
 	@Unique
-	private final Map<BlockPos, List<WeakReference<BlockApiCacheImpl<?, ?>>>> apiLookupCaches = new Object2ReferenceOpenHashMap<>();
+	private int apiLookupCachedPositions = 0;
 	/**
-	 * Ensures that the apiLookupCaches map is iterated over every once in a while to clean up caches.
+	 * Ensures that the apiLookupCaches map is iterated over every once in a while to clean up caches,
+	 * since chunks that never unload (such as spawn chunks) would otherwise accumulate positions that are never accessed again.
 	 */
 	@Unique
 	private int apiLookupAccessesWithoutCleanup = 0;
 
 	@Override
 	public void fabric_registerCache(BlockPos pos, BlockApiCacheImpl<?, ?> cache) {
-		List<WeakReference<BlockApiCacheImpl<?, ?>>> caches = apiLookupCaches.computeIfAbsent(pos.toImmutable(), ignored -> new ArrayList<>());
+		Long2ObjectMap<List<WeakReference<BlockApiCacheImpl<?, ?>>>> chunkCaches = apiLookupCaches.computeIfAbsent(ChunkPos.toLong(pos), ignored -> new Long2ObjectOpenHashMap<>());
+		List<WeakReference<BlockApiCacheImpl<?, ?>>> caches = chunkCaches.get(pos.asLong());
+
+		if (caches == null) {
+			caches = new ArrayList<>();
+			chunkCaches.put(pos.asLong(), caches);
+			apiLookupCachedPositions++;
+		}
+
 		caches.removeIf(weakReference -> weakReference.get() == null);
 		caches.add(new WeakReference<>(cache));
 		apiLookupAccessesWithoutCleanup++;
@@ -51,34 +70,78 @@ abstract class ServerWorldMixin implements ServerWorldCache {
 
 	@Override
 	public void fabric_invalidateCache(BlockPos pos) {
-		List<WeakReference<BlockApiCacheImpl<?, ?>>> caches = apiLookupCaches.get(pos);
+		invalidateCaches(pos);
+		apiLookupAccessesWithoutCleanup++;
 
-		if (caches != null) {
-			caches.removeIf(weakReference -> weakReference.get() == null);
+		// Try to invalidate GC'd lookups from the cache after 2 * the number of cached lookups
+		if (apiLookupAccessesWithoutCleanup > 2 * apiLookupCachedPositions) {
+			cleanupCaches();
+			apiLookupAccessesWithoutCleanup = 0;
+		}
+	}
 
-			if (caches.size() == 0) {
-				apiLookupCaches.remove(pos);
-			} else {
-				caches.forEach(weakReference -> {
-					BlockApiCacheImpl<?, ?> cache = weakReference.get();
+	@Unique
+	private void invalidateCaches(BlockPos pos) {
+		long chunkKey = ChunkPos.toLong(pos);
+		Long2ObjectMap<List<WeakReference<BlockApiCacheImpl<?, ?>>>> chunkCaches = apiLookupCaches.get(chunkKey);
+		if (chunkCaches == null) return;
+
+		List<WeakReference<BlockApiCacheImpl<?, ?>>> caches = chunkCaches.get(pos.asLong());
+		if (caches == null) return;
+
+		caches.removeIf(weakReference -> weakReference.get() == null);
 
-					if (cache != null) {
-						cache.invalidate();
-					}
-				});
+		if (caches.isEmpty()) {
+			chunkCaches.remove(pos.asLong());
+			apiLookupCachedPositions--;
+
+			if (chunkCaches.isEmpty()) {
+				apiLookupCaches.remove(chunkKey);
 			}
+		} else {
+			caches.forEach(weakReference -> {
+				BlockApiCacheImpl<?, ?> cache = weakReference.get();
+
+				if (cache != null) {
+					cache.invalidate();
+				}
+			});
 		}
+	}
 
-		apiLookupAccessesWithoutCleanup++;
+	@Unique
+	private void cleanupCaches() {
+		apiLookupCaches.values().removeIf(chunkCaches -> {
+			chunkCaches.values().removeIf(caches -> {
+				caches.removeIf(weakReference -> weakReference.get() == null);
 
-		// Try to invalidate GC'd lookups from the cache after 2 * the number of cached lookups
-		if (apiLookupAccessesWithoutCleanup > 2 * apiLookupCaches.size()) {
-			apiLookupCaches.entrySet().removeIf(entry -> {
-				entry.getValue().removeIf(weakReference -> weakReference.get() == null);
-				return entry.getValue().isEmpty();
+				if (caches.isEmpty()) {
+					apiLookupCachedPositions--;
+					return true;
+				}
+
+				return false;
 			});
 
-			apiLookupAccessesWithoutCleanup = 0;
+			return chunkCaches.isEmpty();
+		});
+	}
+
+	@Override
+	public void fabric_unloadCaches(ChunkPos chunkPos) {
+		Long2ObjectMap<List<WeakReference<BlockApiCacheImpl<?, ?>>>> chunkCaches = apiLookupCaches.remove(chunkPos.toLong());
+		if (chunkCaches == null) return;
+
+		apiLookupCachedPositions -= chunkCaches.size();
+
+		for (List<WeakReference<BlockApiCacheImpl<?, ?>>> caches : chunkCaches.values()) {
+			for (WeakReference<BlockApiCacheImpl<?, ?>> weakReference : caches) {
+				BlockApiCacheImpl<?, ?> cache = weakReference.get();
+
+				if (cache != null) {
+					cache.unregister();
+				}
+			}
 		}
 	}
 }
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.command;
+
+import static net.minecraft.server.command.CommandManager.argument;
+import static net.minecraft.server.command.CommandManager.literal;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+
+import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.EventProfiler;
+
+/**
+ * Registers {@code /fabric profile events} to dump the slowest event listeners, when {@linkplain EventProfiler event profiling} is enabled.
+ */
+public final class EventProfileCommand implements ModInitializer {
+	private static final int DEFAULT_COUNT = 10;
+
+	@Override
+	public void onInitialize() {
+		if (!EventProfiler.isEnabled()) {
+			return;
+		}
+
+		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> {
+			dispatcher.register(literal("fabric")
+					.requires(source -> source.hasPermissionLevel(4))
+					.then(literal("profile")
+							.then(literal("events")
+									.executes(context -> dump(context, DEFAULT_COUNT))
+									.then(argument("count", IntegerArgumentType.integer(1))
+											.executes(context -> dump(context, IntegerArgumentType.getInteger(context, "count"))))
+									.then(literal("reset")
+											.executes(EventProfileCommand::reset)))));
+		});
+	}
+
+	private static int dump(CommandContext<ServerCommandSource> context, int count) {
+		List<EventProfiler.ListenerStats> stats = EventProfiler.getListenerStats();
+		ServerCommandSource source = context.getSource();
+		source.sendFeedback(() -> Text.literal("Top %d of %d event listeners by total time:".formatted(Math.min(count, stats.size()), stats.size())), false);
+
+		for (int i = 0; i < count && i < stats.size(); ++i) {
+			EventProfiler.ListenerStats listener = stats.get(i);
+			String line = String.format(Locale.ROOT, "%d. [%s] %s (%s): %d calls, %.3f ms total, %.2f us/call, %s",
+					i + 1,
+					listener.modId(),
+					listener.listenerClass(),
+					listener.listenerType().getName(),
+					listener.calls(),
+					listener.totalNanos() / 1e6,
+					listener.calls() == 0 ? 0 : listener.totalNanos() / 1e3 / listener.calls(),
+					listener.allocatedBytes() < 0 ? "allocations unavailable" : listener.allocatedBytes() + " bytes allocated");
+			source.sendFeedback(() -> Text.literal(line), false);
+		}
+
+		return stats.size();
+	}
+
+	private static int reset(CommandContext<ServerCommandSource> context) {
+		EventProfiler.reset();
+		context.getSource().sendFeedback(() -> Text.literal("Reset event listener statistics."), true);
+		return 1;
+	}
+}
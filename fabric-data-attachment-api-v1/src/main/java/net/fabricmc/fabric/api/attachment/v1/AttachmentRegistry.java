@@ -126,6 +126,27 @@ public final class AttachmentRegistry {
 		 */
 		Builder<A> persistent(Codec<A> codec);
 
+		/**
+		 * Declares that attachments should persist between server restarts, using the provided {@link Codec} for
+		 * (de)serialization, and the provided {@link PacketCodec} as a faster binary format when saving.
+		 *
+		 * <p>The binary format skips the overhead of encoding the data into NBT, which matters for targets carrying many attachments,
+		 * such as chunks. The {@link Codec} is still used to read data saved without the binary format.
+		 * Changing the binary format in an incompatible way will lose the attachments saved in the previous format.</p>
+		 *
+		 * <p>Unlike network packets, saves outlive the session, while the raw ids of registry entries can change between sessions,
+		 * for example when mods or data packs are added or removed. The binary codec must therefore not depend on registries:
+		 * it is given no registries, so codecs such as {@link net.minecraft.network.codec.PacketCodecs#registryValue} or
+		 * {@link net.minecraft.network.codec.PacketCodecs#registryEntry} fail, and the attachment is then saved with the {@link Codec}.
+		 * Codecs that write raw ids without going through the registries, such as those of block states, can't be detected and
+		 * <b>must not</b> be used here.</p>
+		 *
+		 * @param codec the codec used for (de)serialization
+		 * @param binaryCodec the codec used to save and load the attachments in a binary format
+		 * @return the builder
+		 */
+		Builder<A> persistent(Codec<A> codec, PacketCodec<? super RegistryByteBuf, A> binaryCodec);
+
 		/**
 		 * Declares that when a player dies and respawns, the attachments of this type should remain.
 		 *
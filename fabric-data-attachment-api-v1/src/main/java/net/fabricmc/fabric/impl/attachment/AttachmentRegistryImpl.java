@@ -16,12 +16,14 @@
 
 package net.fabricmc.fabric.impl.attachment;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.IntFunction;
 import java.util.function.Supplier;
 
 import com.mojang.serialization.Codec;
@@ -41,11 +43,20 @@ import net.fabricmc.fabric.impl.attachment.sync.AttachmentSync;
 public final class AttachmentRegistryImpl {
 	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-data-attachment-api-v1");
 	private static final Map<Identifier, AttachmentType<?>> attachmentRegistry = new HashMap<>();
+	/**
+	 * Lookup by the string form of the identifiers, as found in saved data, to skip parsing them.
+	 */
+	private static final Map<String, AttachmentType<?>> attachmentRegistryByString = new HashMap<>();
+	/**
+	 * Types by their {@linkplain AttachmentTypeImpl#slot() slot}, copied on each registration so that it can be read from any thread.
+	 */
+	private static volatile AttachmentType<?>[] attachmentsBySlot = new AttachmentType<?>[0];
 	private static final Set<Identifier> syncableAttachments = new HashSet<>();
 	private static final Set<Identifier> syncableView = Collections.unmodifiableSet(syncableAttachments);
 
 	public static <A> void register(Identifier id, AttachmentType<A> attachmentType) {
 		AttachmentType<?> existing = attachmentRegistry.put(id, attachmentType);
+		attachmentRegistryByString.put(id.toString(), attachmentType);
 
 		if (existing != null) {
 			LOGGER.warn("Encountered duplicate type registration for id {}", id);
@@ -66,6 +77,24 @@ public final class AttachmentRegistryImpl {
 		return attachmentRegistry.get(id);
 	}
 
+	@Nullable
+	public static AttachmentType<?> get(String id) {
+		return attachmentRegistryByString.get(id);
+	}
+
+	static AttachmentType<?> getBySlot(int slot) {
+		return attachmentsBySlot[slot];
+	}
+
+	private static synchronized <A> AttachmentTypeImpl<A> createWithSlot(IntFunction<AttachmentTypeImpl<A>> factory) {
+		AttachmentType<?>[] types = attachmentsBySlot;
+		AttachmentTypeImpl<A> type = factory.apply(types.length);
+		AttachmentType<?>[] newTypes = Arrays.copyOf(types, types.length + 1);
+		newTypes[types.length] = type;
+		attachmentsBySlot = newTypes;
+		return type;
+	}
+
 	public static Set<Identifier> getSyncableAttachments() {
 		return syncableView;
 	}
@@ -80,6 +109,8 @@ public final class AttachmentRegistryImpl {
 		@Nullable
 		private Codec<A> persistenceCodec = null;
 		@Nullable
+		private PacketCodec<? super RegistryByteBuf, A> binaryPersistenceCodec = null;
+		@Nullable
 		private PacketCodec<? super RegistryByteBuf, A> packetCodec = null;
 		@Nullable
 		private AttachmentSyncPredicate syncPredicate = null;
@@ -90,6 +121,17 @@ public final class AttachmentRegistryImpl {
 			Objects.requireNonNull(codec, "codec cannot be null");
 
 			this.persistenceCodec = codec;
+			this.binaryPersistenceCodec = null;
+			return this;
+		}
+
+		@Override
+		public AttachmentRegistry.Builder<A> persistent(Codec<A> codec, PacketCodec<? super RegistryByteBuf, A> binaryCodec) {
+			Objects.requireNonNull(codec, "codec cannot be null");
+			Objects.requireNonNull(binaryCodec, "binary codec cannot be null");
+
+			this.persistenceCodec = codec;
+			this.binaryPersistenceCodec = binaryCodec;
 			return this;
 		}
 
@@ -130,14 +172,16 @@ public final class AttachmentRegistryImpl {
 				);
 			}
 
-			var attachment = new AttachmentTypeImpl<>(
+			AttachmentTypeImpl<A> attachment = createWithSlot(slot -> new AttachmentTypeImpl<>(
 					id,
 					defaultInitializer,
 					persistenceCodec,
+					binaryPersistenceCodec,
 					packetCodec,
 					syncPredicate,
-					copyOnDeath
-			);
+					copyOnDeath,
+					slot
+			));
 			register(id, attachment);
 			return attachment;
 		}
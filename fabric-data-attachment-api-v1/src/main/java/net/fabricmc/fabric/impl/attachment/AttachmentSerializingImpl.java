@@ -18,8 +18,11 @@ package net.fabricmc.fabric.impl.attachment;
 
 import java.util.IdentityHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.mojang.serialization.Codec;
+import io.netty.buffer.Unpooled;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,30 +30,80 @@ import org.slf4j.LoggerFactory;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtOps;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.registry.RegistryOps;
 import net.minecraft.registry.RegistryWrapper;
-import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.api.attachment.v1.AttachmentTarget;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 
 public class AttachmentSerializingImpl {
 	private static final Logger LOGGER = LoggerFactory.getLogger("fabric-data-attachment-api-v1");
+	/**
+	 * Key of the byte array holding the attachments saved in a binary format, inside the attachment compound.
+	 * Versions without the binary format see it as an unknown attachment type and skip it.
+	 *
+	 * <p>The array is a sequence of entries made of the attachment type identifier, the length of the data as an int, and the data.
+	 *
+	 * <p>The data is written and read without any registry: raw registry ids can change between sessions,
+	 * so binary codecs that write them (such as {@link net.minecraft.network.codec.PacketCodecs#registryValue}) fail,
+	 * and their attachments are saved with their codec instead.
+	 */
+	private static final String BINARY_KEY = "fabric:binary_attachments";
+	/**
+	 * Types whose binary codec failed to encode a value, which are saved with their codec from then on.
+	 */
+	private static final Set<AttachmentType<?>> BINARY_FAILED_TYPES = ConcurrentHashMap.newKeySet();
 
 	@SuppressWarnings("unchecked")
-	public static void serializeAttachmentData(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup, @Nullable IdentityHashMap<AttachmentType<?>, ?> attachments) {
+	public static void serializeAttachmentData(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup, @Nullable Map<AttachmentType<?>, ?> attachments) {
 		if (attachments == null || attachments.isEmpty()) {
 			return;
 		}
 
 		var compound = new NbtCompound();
+		RegistryOps<NbtElement> registryOps = null;
+		RegistryByteBuf binaryBuf = null;
 
 		for (Map.Entry<AttachmentType<?>, ?> entry : attachments.entrySet()) {
 			AttachmentType<?> type = entry.getKey();
+			var binaryCodec = (PacketCodec<? super RegistryByteBuf, Object>) ((AttachmentTypeImpl<?>) type).binaryPersistenceCodec();
+
+			if (binaryCodec != null && !BINARY_FAILED_TYPES.contains(type)) {
+				if (binaryBuf == null) {
+					// No registries, so that codecs writing raw registry ids fail instead of corrupting the save
+					binaryBuf = new RegistryByteBuf(Unpooled.buffer(), DynamicRegistryManager.EMPTY);
+				}
+
+				int start = binaryBuf.writerIndex();
+
+				try {
+					binaryBuf.writeString(type.identifier().toString());
+					int lengthIndex = binaryBuf.writerIndex();
+					binaryBuf.writeInt(0);
+					binaryCodec.encode(binaryBuf, entry.getValue());
+					binaryBuf.setInt(lengthIndex, binaryBuf.writerIndex() - lengthIndex - Integer.BYTES);
+					continue;
+				} catch (RuntimeException e) {
+					// Fall back to the codec
+					if (BINARY_FAILED_TYPES.add(type)) {
+						LOGGER.error("Couldn't serialize attachment {} in binary format, saving it with its codec from now on. "
+								+ "Binary codecs must not depend on registries, whose raw ids can change between sessions. Error:", type.identifier(), e);
+					}
+
+					binaryBuf.writerIndex(start);
+				}
+			}
+
 			Codec<Object> codec = (Codec<Object>) type.persistenceCodec();
 
 			if (codec != null) {
-				RegistryOps<NbtElement> registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
+				if (registryOps == null) {
+					registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
+				}
+
 				codec.encodeStart(registryOps, entry.getValue())
 						.ifError(partial -> {
 							LOGGER.warn("Couldn't serialize attachment {}, skipping. Error:", type.identifier());
@@ -60,6 +113,12 @@ public class AttachmentSerializingImpl {
 			}
 		}
 
+		if (binaryBuf != null && binaryBuf.readableBytes() > 0) {
+			byte[] data = new byte[binaryBuf.readableBytes()];
+			binaryBuf.readBytes(data);
+			compound.putByteArray(BINARY_KEY, data);
+		}
+
 		nbt.put(AttachmentTarget.NBT_ATTACHMENT_KEY, compound);
 	}
 
@@ -68,9 +127,15 @@ public class AttachmentSerializingImpl {
 		if (nbt.contains(AttachmentTarget.NBT_ATTACHMENT_KEY, NbtElement.COMPOUND_TYPE)) {
 			var attachments = new IdentityHashMap<AttachmentType<?>, Object>();
 			NbtCompound compound = nbt.getCompound(AttachmentTarget.NBT_ATTACHMENT_KEY);
+			RegistryOps<NbtElement> registryOps = null;
 
 			for (String key : compound.getKeys()) {
-				AttachmentType<?> type = AttachmentRegistryImpl.get(Identifier.of(key));
+				if (key.equals(BINARY_KEY)) {
+					deserializeBinaryAttachments(compound.getByteArray(BINARY_KEY), attachments);
+					continue;
+				}
+
+				AttachmentType<?> type = AttachmentRegistryImpl.get(key);
 
 				if (type == null) {
 					LOGGER.warn("Unknown attachment type {} found when deserializing, skipping", key);
@@ -80,7 +145,10 @@ public class AttachmentSerializingImpl {
 				Codec<?> codec = type.persistenceCodec();
 
 				if (codec != null) {
-					RegistryOps<NbtElement> registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
+					if (registryOps == null) {
+						registryOps = wrapperLookup.getOps(NbtOps.INSTANCE);
+					}
+
 					codec.parse(registryOps, compound.get(key))
 							.ifError(partial -> {
 								LOGGER.warn("Couldn't deserialize attachment {}, skipping. Error:", type.identifier());
@@ -102,7 +170,45 @@ public class AttachmentSerializingImpl {
 		return null;
 	}
 
-	public static boolean hasPersistentAttachments(@Nullable IdentityHashMap<AttachmentType<?>, ?> map) {
+	private static void deserializeBinaryAttachments(byte[] data, IdentityHashMap<AttachmentType<?>, Object> attachments) {
+		RegistryByteBuf buf = new RegistryByteBuf(Unpooled.wrappedBuffer(data), DynamicRegistryManager.EMPTY);
+
+		try {
+			while (buf.isReadable()) {
+				String key = buf.readString();
+				int length = buf.readInt();
+
+				if (length < 0 || length > buf.readableBytes()) {
+					LOGGER.warn("Malformed binary attachment data for {}, skipping the rest", key);
+					return;
+				}
+
+				int end = buf.readerIndex() + length;
+				AttachmentType<?> type = AttachmentRegistryImpl.get(key);
+				PacketCodec<? super RegistryByteBuf, ?> binaryCodec = type == null ? null : ((AttachmentTypeImpl<?>) type).binaryPersistenceCodec();
+
+				if (binaryCodec == null) {
+					LOGGER.warn("Unknown binary attachment type {} found when deserializing, skipping", key);
+				} else {
+					try {
+						attachments.put(type, binaryCodec.decode(buf));
+
+						if (buf.readerIndex() != end) {
+							LOGGER.warn("Binary attachment {} did not read all of its data", key);
+						}
+					} catch (RuntimeException e) {
+						LOGGER.warn("Couldn't deserialize binary attachment {}, skipping. Error:", key, e);
+					}
+				}
+
+				buf.readerIndex(end);
+			}
+		} catch (RuntimeException e) {
+			LOGGER.warn("Malformed binary attachment data, skipping the rest. Error:", e);
+		}
+	}
+
+	public static boolean hasPersistentAttachments(@Nullable Map<AttachmentType<?>, ?> map) {
 		if (map == null) {
 			return false;
 		}
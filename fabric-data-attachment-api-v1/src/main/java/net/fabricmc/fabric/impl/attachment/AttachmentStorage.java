@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.attachment;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.jetbrains.annotations.Nullable;
+
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+
+/**
+ * Attachments of a target, indexed by the {@linkplain AttachmentTypeImpl#slot() slot} of their type.
+ *
+ * <p>The attachments of the first {@link #DENSE_SLOTS} registered types are stored in an array indexed by slot,
+ * so their lookups are a bounds check and an array read, without hashing.
+ * The array only grows up to the highest of these slots attached to the target,
+ * so it never holds more than {@value #DENSE_SLOTS} references.
+ *
+ * <p>Attachments of later types are stored in sorted parallel arrays of slots and values, searched by binary search.
+ * This keeps the memory of a target proportional to its number of attachments in large modpacks, where a target holding
+ * a single late-registered type would otherwise allocate an array with hundreds of empty slots.
+ */
+public final class AttachmentStorage extends AbstractMap<AttachmentType<?>, Object> {
+	/**
+	 * Number of slots stored in the dense array. A default {@link java.util.IdentityHashMap}, which the attachments
+	 * used to be stored in, allocates an {@code Object[64]} table holding 32 keys and 32 values interleaved:
+	 * a full dense array costs half of that, and holds up to as many attachments.
+	 */
+	static final int DENSE_SLOTS = 32;
+	private static final Object[] EMPTY = new Object[0];
+	private static final int[] EMPTY_SLOTS = new int[0];
+	private static final int MIN_CAPACITY = 8;
+	private static final int MIN_SPARSE_CAPACITY = 2;
+
+	private Object[] values = EMPTY;
+	private int[] sparseSlots = EMPTY_SLOTS;
+	private Object[] sparseValues = EMPTY;
+	private int sparseSize = 0;
+	private int size = 0;
+
+	public AttachmentStorage() {
+	}
+
+	public AttachmentStorage(Map<AttachmentType<?>, ?> attachments) {
+		for (Map.Entry<AttachmentType<?>, ?> entry : attachments.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	@Nullable
+	public Object get(Object key) {
+		if (!(key instanceof AttachmentTypeImpl<?> type)) {
+			return null;
+		}
+
+		int slot = type.slot();
+
+		if (slot < DENSE_SLOTS) {
+			return slot < values.length ? values[slot] : null;
+		}
+
+		int index = Arrays.binarySearch(sparseSlots, 0, sparseSize, slot);
+		return index >= 0 ? sparseValues[index] : null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	@Override
+	@Nullable
+	public Object put(AttachmentType<?> key, Object value) {
+		if (value == null) {
+			throw new NullPointerException("Attachment values cannot be null");
+		}
+
+		int slot = ((AttachmentTypeImpl<?>) key).slot();
+		Object previous;
+
+		if (slot < DENSE_SLOTS) {
+			if (slot >= values.length) {
+				int capacity = Math.max(MIN_CAPACITY, Math.max(slot + 1, values.length + (values.length >> 1)));
+				values = Arrays.copyOf(values, Math.min(capacity, DENSE_SLOTS));
+			}
+
+			previous = values[slot];
+			values[slot] = value;
+		} else {
+			int index = Arrays.binarySearch(sparseSlots, 0, sparseSize, slot);
+
+			if (index >= 0) {
+				previous = sparseValues[index];
+				sparseValues[index] = value;
+			} else {
+				previous = null;
+				insertSparse(-index - 1, slot, value);
+			}
+		}
+
+		if (previous == null) {
+			size++;
+		}
+
+		return previous;
+	}
+
+	private void insertSparse(int index, int slot, Object value) {
+		if (sparseSize == sparseSlots.length) {
+			int capacity = Math.max(MIN_SPARSE_CAPACITY, sparseSize * 2);
+			sparseSlots = Arrays.copyOf(sparseSlots, capacity);
+			sparseValues = Arrays.copyOf(sparseValues, capacity);
+		}
+
+		System.arraycopy(sparseSlots, index, sparseSlots, index + 1, sparseSize - index);
+		System.arraycopy(sparseValues, index, sparseValues, index + 1, sparseSize - index);
+		sparseSlots[index] = slot;
+		sparseValues[index] = value;
+		sparseSize++;
+	}
+
+	private void removeSparse(int index) {
+		sparseSize--;
+		System.arraycopy(sparseSlots, index + 1, sparseSlots, index, sparseSize - index);
+		System.arraycopy(sparseValues, index + 1, sparseValues, index, sparseSize - index);
+		sparseValues[sparseSize] = null;
+	}
+
+	@Override
+	@Nullable
+	public Object remove(Object key) {
+		if (!(key instanceof AttachmentTypeImpl<?> type)) {
+			return null;
+		}
+
+		int slot = type.slot();
+		Object previous;
+
+		if (slot < DENSE_SLOTS) {
+			if (slot >= values.length) {
+				return null;
+			}
+
+			previous = values[slot];
+			values[slot] = null;
+		} else {
+			int index = Arrays.binarySearch(sparseSlots, 0, sparseSize, slot);
+
+			if (index < 0) {
+				return null;
+			}
+
+			previous = sparseValues[index];
+			removeSparse(index);
+		}
+
+		if (previous != null) {
+			size--;
+		}
+
+		return previous;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(values, null);
+		Arrays.fill(sparseValues, 0, sparseSize, null);
+		sparseSize = 0;
+		size = 0;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Set<Entry<AttachmentType<?>, Object>> entrySet() {
+		return new AbstractSet<>() {
+			@Override
+			public Iterator<Entry<AttachmentType<?>, Object>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/**
+	 * Iterates over the dense slots, then over the sparse entries.
+	 * Positions below {@code values.length} are dense slots, positions above are offset indices into the sparse arrays.
+	 */
+	private final class EntryIterator implements Iterator<Entry<AttachmentType<?>, Object>> {
+		private final int denseLength = values.length;
+		private int next = advance(0);
+		private int last = -1;
+
+		private int advance(int from) {
+			while (from < denseLength && values[from] == null) {
+				from++;
+			}
+
+			return from;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < denseLength + sparseSize;
+		}
+
+		@Override
+		public Entry<AttachmentType<?>, Object> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+
+			last = next;
+			next = advance(next + 1);
+
+			if (last < denseLength) {
+				return new SimpleImmutableEntry<>(AttachmentRegistryImpl.getBySlot(last), values[last]);
+			}
+
+			int index = last - denseLength;
+			return new SimpleImmutableEntry<>(AttachmentRegistryImpl.getBySlot(sparseSlots[index]), sparseValues[index]);
+		}
+
+		@Override
+		public void remove() {
+			if (last == -1) {
+				throw new IllegalStateException();
+			}
+
+			if (last < denseLength) {
+				values[last] = null;
+			} else {
+				removeSparse(last - denseLength);
+				// The following sparse entries moved down by one.
+				next--;
+			}
+
+			size--;
+			last = -1;
+		}
+	}
+}
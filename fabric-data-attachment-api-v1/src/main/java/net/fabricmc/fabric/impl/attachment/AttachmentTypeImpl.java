@@ -32,9 +32,11 @@ public record AttachmentTypeImpl<A>(
 		Identifier identifier,
 		@Nullable Supplier<A> initializer,
 		@Nullable Codec<A> persistenceCodec,
+		@Nullable PacketCodec<? super RegistryByteBuf, A> binaryPersistenceCodec,
 		@Nullable PacketCodec<? super RegistryByteBuf, A> packetCodec,
 		@Nullable AttachmentSyncPredicate syncPredicate,
-		boolean copyOnDeath
+		boolean copyOnDeath,
+		int slot
 ) implements AttachmentType<A> {
 	@Override
 	public boolean isSynced() {
@@ -21,6 +21,7 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
+import java.util.function.Function;
 
 import io.netty.buffer.Unpooled;
 import org.jetbrains.annotations.Nullable;
@@ -34,6 +35,7 @@ import net.minecraft.server.network.ServerPlayerEntity;
 import net.minecraft.util.Identifier;
 import net.minecraft.world.World;
 
+import net.fabricmc.fabric.api.attachment.v1.AttachmentTarget;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
@@ -72,7 +74,9 @@ public record AttachmentChange(AttachmentTargetInfo<?> targetInfo, AttachmentTyp
 			buf.writeBoolean(false);
 		}
 
-		byte[] encoded = buf.array();
+		// Copy only the written bytes, the backing array is larger than the data
+		byte[] encoded = new byte[buf.readableBytes()];
+		buf.readBytes(encoded);
 
 		if (encoded.length > MAX_DATA_SIZE_IN_BYTES) {
 			throw new IllegalArgumentException("Data for attachment '%s' was too big (%d bytes, over maximum %d)".formatted(
@@ -85,35 +89,90 @@ public record AttachmentChange(AttachmentTargetInfo<?> targetInfo, AttachmentTyp
 		return new AttachmentChange(targetInfo, type, encoded);
 	}
 
-	public static void partitionAndSendPackets(List<AttachmentChange> changes, ServerPlayerEntity player) {
-		Set<Identifier> supported = ((SupportedAttachmentsClientConnection) ((ServerCommonNetworkHandlerAccessor) player.networkHandler).getConnection())
+	/**
+	 * Sends the changes supported by the player's client in as few packets as possible.
+	 *
+	 * @return the number of packets sent
+	 */
+	public static int partitionAndSendPackets(List<AttachmentChange> changes, ServerPlayerEntity player) {
+		List<AttachmentSyncPayloadS2C> payloads = partition(changes, getSupportedAttachments(player));
+
+		for (AttachmentSyncPayloadS2C payload : payloads) {
+			ServerPlayNetworking.send(player, payload);
+		}
+
+		return payloads.size();
+	}
+
+	public static Set<Identifier> getSupportedAttachments(ServerPlayerEntity player) {
+		return ((SupportedAttachmentsClientConnection) ((ServerCommonNetworkHandlerAccessor) player.networkHandler).getConnection())
 				.fabric_getSupportedAttachments();
+	}
+
+	/**
+	 * Splits the changes of the supported attachment types into as few payloads as possible.
+	 */
+	public static List<AttachmentSyncPayloadS2C> partition(List<AttachmentChange> changes, Set<Identifier> supported) {
+		return partition(changes, supported, null);
+	}
+
+	/**
+	 * Splits the changes of the supported attachment types into as few payloads as possible.
+	 * If an encoder is given, the payloads carry the encoded changes it returns, so that changes sent to several players
+	 * can be encoded once and shared.
+	 */
+	public static List<AttachmentSyncPayloadS2C> partition(List<AttachmentChange> changes, Set<Identifier> supported, @Nullable Function<AttachmentChange, byte[]> encoder) {
+		List<AttachmentChange> supportedChanges = new ArrayList<>(changes.size());
+
+		for (AttachmentChange change : changes) {
+			if (supported.contains(change.type.identifier())) {
+				supportedChanges.add(change);
+			}
+		}
+
 		// sort by size to better partition packets
-		changes.sort(Comparator.comparingInt(c -> c.data().length));
+		supportedChanges.sort(Comparator.comparingInt(c -> c.data().length));
+		List<AttachmentSyncPayloadS2C> payloads = new ArrayList<>();
 		List<AttachmentChange> packetChanges = new ArrayList<>();
+		List<byte[]> encodedPacketChanges = encoder != null ? new ArrayList<>() : null;
 		int maxVarIntSize = VarIntsAccessor.getMaxByteSize();
 		int byteSize = maxVarIntSize;
 
-		for (AttachmentChange change : changes) {
-			if (!supported.contains(change.type.identifier())) {
-				continue;
-			}
-
+		for (AttachmentChange change : supportedChanges) {
 			int size = MAX_PADDING_SIZE_IN_BYTES + change.data.length;
 
 			if (byteSize + size > MAX_DATA_SIZE_IN_BYTES) {
-				ServerPlayNetworking.send(player, new AttachmentSyncPayloadS2C(packetChanges));
-				packetChanges.clear();
+				payloads.add(new AttachmentSyncPayloadS2C(packetChanges, encodedPacketChanges));
+				packetChanges = new ArrayList<>();
+				encodedPacketChanges = encoder != null ? new ArrayList<>() : null;
 				byteSize = maxVarIntSize;
 			}
 
 			packetChanges.add(change);
+
+			if (encoder != null) {
+				encodedPacketChanges.add(encoder.apply(change));
+			}
+
 			byteSize += size;
 		}
 
 		if (!packetChanges.isEmpty()) {
-			ServerPlayNetworking.send(player, new AttachmentSyncPayloadS2C(packetChanges));
+			payloads.add(new AttachmentSyncPayloadS2C(packetChanges, encodedPacketChanges));
 		}
+
+		return payloads;
+	}
+
+	/**
+	 * Encodes this change the way {@link AttachmentSyncPayloadS2C} writes it.
+	 */
+	public byte[] encode() {
+		PacketByteBuf buf = PacketByteBufs.create();
+		PACKET_CODEC.encode(buf, this);
+		byte[] encoded = new byte[buf.readableBytes()];
+		buf.readBytes(encoded);
+		return encoded;
 	}
 
 	@SuppressWarnings("unchecked")
@@ -133,6 +192,13 @@ public record AttachmentChange(AttachmentTargetInfo<?> targetInfo, AttachmentTyp
 	}
 
 	public void apply(World world) {
-		targetInfo.getTarget(world).setAttached((AttachmentType<Object>) type, decodeValue(world.getRegistryManager()));
+		AttachmentTarget target = targetInfo.getTarget(world);
+
+		if (target == null) {
+			// The target may have been removed on the client before the change arrived
+			return;
+		}
+
+		target.setAttached((AttachmentType<Object>) type, decodeValue(world.getRegistryManager()));
 	}
 }
@@ -33,7 +33,6 @@ import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayConnectionEvents;
-import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.fabric.impl.attachment.AttachmentEntrypoint;
 import net.fabricmc.fabric.impl.attachment.AttachmentRegistryImpl;
 import net.fabricmc.fabric.impl.attachment.AttachmentTargetImpl;
@@ -49,12 +48,6 @@ public class AttachmentSync implements ModInitializer {
 		return new AcceptedAttachmentsPayloadC2S(AttachmentRegistryImpl.getSyncableAttachments());
 	}
 
-	public static void trySync(AttachmentSyncPayloadS2C payload, ServerPlayerEntity player) {
-		if (!payload.attachments().isEmpty()) {
-			ServerPlayNetworking.send(player, payload);
-		}
-	}
-
 	private static Set<Identifier> decodeResponsePayload(AcceptedAttachmentsPayloadC2S payload) {
 		Set<Identifier> atts = payload.acceptedAttachments();
 		Set<Identifier> syncable = AttachmentRegistryImpl.getSyncableAttachments();
@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.attachment.sync;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+
+import net.minecraft.server.network.ServerPlayerEntity;
+
+import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
+import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
+import net.fabricmc.fabric.impl.attachment.AttachmentEntrypoint;
+import net.fabricmc.fabric.impl.attachment.AttachmentTargetImpl;
+import net.fabricmc.fabric.impl.attachment.sync.s2c.AttachmentSyncPayloadS2C;
+
+/**
+ * Collects the attachment changes made during a server tick and sends them at the end of the tick.
+ *
+ * <p>Only the last change of each attachment type is kept for each target, and the changes are grouped by recipient,
+ * so that each player receives as few packets as possible per tick. Each change is encoded at most once,
+ * however many players receive it.
+ * The recipients are computed when the changes are sent, so that players who stopped tracking a target during the tick
+ * don't receive its changes, while players who started tracking it already received its latest state.
+ */
+public final class AttachmentSyncQueue {
+	private static final Object LOCK = new Object();
+	private static Reference2ObjectMap<AttachmentTargetImpl, Reference2ObjectMap<AttachmentType<?>, AttachmentChange>> pending = new Reference2ObjectLinkedOpenHashMap<>();
+	private static int queuedChanges = 0;
+
+	private AttachmentSyncQueue() {
+	}
+
+	/**
+	 * Queues a change to be sent at the end of the tick, replacing any change to the same attachment of the target queued during this tick.
+	 */
+	public static void enqueue(AttachmentTargetImpl target, AttachmentChange change) {
+		synchronized (LOCK) {
+			Reference2ObjectMap<AttachmentType<?>, AttachmentChange> changes = pending.get(target);
+
+			if (changes == null) {
+				changes = new Reference2ObjectLinkedOpenHashMap<>();
+				pending.put(target, changes);
+			}
+
+			changes.put(change.type(), change);
+			queuedChanges++;
+		}
+	}
+
+	/**
+	 * Sends the queued changes to the players. Called on the server thread at the end of each tick.
+	 */
+	public static void flush() {
+		Reference2ObjectMap<AttachmentTargetImpl, Reference2ObjectMap<AttachmentType<?>, AttachmentChange>> changesByTarget;
+		int queued;
+
+		synchronized (LOCK) {
+			if (pending.isEmpty()) {
+				return;
+			}
+
+			changesByTarget = pending;
+			queued = queuedChanges;
+			pending = new Reference2ObjectLinkedOpenHashMap<>();
+			queuedChanges = 0;
+		}
+
+		Map<ServerPlayerEntity, List<AttachmentChange>> changesByPlayer = new Reference2ObjectLinkedOpenHashMap<>();
+		int coalesced = 0;
+
+		for (Reference2ObjectMap.Entry<AttachmentTargetImpl, Reference2ObjectMap<AttachmentType<?>, AttachmentChange>> targetEntry : changesByTarget.reference2ObjectEntrySet()) {
+			for (AttachmentChange change : targetEntry.getValue().values()) {
+				coalesced++;
+				targetEntry.getKey().fabric_forEachSyncRecipient(change.type(), player -> {
+					changesByPlayer.computeIfAbsent(player, p -> new ArrayList<>()).add(change);
+				});
+			}
+		}
+
+		// Each change is encoded once, for its first recipient, and the payloads of all its recipients share the bytes.
+		Reference2ObjectMap<AttachmentChange, byte[]> encodedChanges = new Reference2ObjectOpenHashMap<>();
+		Function<AttachmentChange, byte[]> encoder = change -> encodedChanges.computeIfAbsent(change, AttachmentChange::encode);
+		int packets = 0;
+		long bytes = 0;
+
+		for (Map.Entry<ServerPlayerEntity, List<AttachmentChange>> playerEntry : changesByPlayer.entrySet()) {
+			ServerPlayerEntity player = playerEntry.getKey();
+
+			// Players without a connection, such as fake players, can't receive packets.
+			if (player.networkHandler == null) {
+				continue;
+			}
+
+			List<AttachmentSyncPayloadS2C> payloads = AttachmentChange.partition(playerEntry.getValue(), AttachmentChange.getSupportedAttachments(player), encoder);
+
+			for (AttachmentSyncPayloadS2C payload : payloads) {
+				ServerPlayNetworking.send(player, payload);
+				bytes += payload.getDataSize();
+			}
+
+			packets += payloads.size();
+		}
+
+		if (AttachmentEntrypoint.LOGGER.isDebugEnabled()) {
+			AttachmentEntrypoint.LOGGER.debug(
+					"Synced {} attachment changes ({} before coalescing, {} encoded) to {} players in {} packets carrying {} bytes of attachment data",
+					coalesced,
+					queued,
+					encodedChanges.size(),
+					changesByPlayer.size(),
+					packets,
+					bytes
+			);
+		}
+	}
+
+	/**
+	 * Forgets the changes that were not sent yet, so that targets of a stopped server are neither kept alive
+	 * nor sent to the players of the next integrated server. Called when the server shuts down.
+	 */
+	public static void clear() {
+		synchronized (LOCK) {
+			pending = new Reference2ObjectLinkedOpenHashMap<>();
+			queuedChanges = 0;
+		}
+	}
+}
@@ -18,6 +18,8 @@ package net.fabricmc.fabric.impl.attachment.sync.s2c;
 
 import java.util.List;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
@@ -26,14 +28,69 @@ import net.minecraft.util.Identifier;
 
 import net.fabricmc.fabric.impl.attachment.sync.AttachmentChange;
 
-public record AttachmentSyncPayloadS2C(List<AttachmentChange> attachments) implements CustomPayload {
-	public static final PacketCodec<PacketByteBuf, AttachmentSyncPayloadS2C> CODEC = PacketCodec.tuple(
-			AttachmentChange.PACKET_CODEC.collect(PacketCodecs.toList()), AttachmentSyncPayloadS2C::attachments,
-			AttachmentSyncPayloadS2C::new
+/**
+ * Carries attachment changes to a client.
+ *
+ * <p>A change queued during a tick is often sent to many players, so payloads can carry the encoded form of each change,
+ * shared by the payloads of all its recipients, and writing them then only copies the bytes.
+ */
+public final class AttachmentSyncPayloadS2C implements CustomPayload {
+	private static final PacketCodec<PacketByteBuf, List<AttachmentChange>> CHANGES_CODEC = AttachmentChange.PACKET_CODEC.collect(PacketCodecs.toList());
+	public static final PacketCodec<PacketByteBuf, AttachmentSyncPayloadS2C> CODEC = CustomPayload.codecOf(
+			AttachmentSyncPayloadS2C::write,
+			buf -> new AttachmentSyncPayloadS2C(CHANGES_CODEC.decode(buf))
 	);
 	public static final Identifier PACKET_ID = Identifier.of("fabric", "attachment_sync_v1");
 	public static final Id<AttachmentSyncPayloadS2C> ID = new Id<>(PACKET_ID);
 
+	private final List<AttachmentChange> attachments;
+	@Nullable
+	private final List<byte[]> encodedAttachments;
+
+	public AttachmentSyncPayloadS2C(List<AttachmentChange> attachments) {
+		this(attachments, null);
+	}
+
+	/**
+	 * @param encodedAttachments the {@linkplain AttachmentChange#encode() encoded form} of each change, in the same order,
+	 *                           or {@code null} to encode the changes when the payload is written
+	 */
+	public AttachmentSyncPayloadS2C(List<AttachmentChange> attachments, @Nullable List<byte[]> encodedAttachments) {
+		this.attachments = attachments;
+		this.encodedAttachments = encodedAttachments;
+	}
+
+	public List<AttachmentChange> attachments() {
+		return attachments;
+	}
+
+	/**
+	 * Returns the total size of the encoded attachment values carried by this payload, in bytes.
+	 */
+	public long getDataSize() {
+		long size = 0;
+
+		for (AttachmentChange change : attachments) {
+			size += change.data().length;
+		}
+
+		return size;
+	}
+
+	private void write(PacketByteBuf buf) {
+		if (encodedAttachments == null) {
+			CHANGES_CODEC.encode(buf, attachments);
+			return;
+		}
+
+		// Same layout as CHANGES_CODEC: the number of changes followed by each change.
+		buf.writeVarInt(encodedAttachments.size());
+
+		for (byte[] bytes : encodedAttachments) {
+			buf.writeBytes(bytes);
+		}
+	}
+
 	@Override
 	public Id<? extends CustomPayload> getId() {
 		return ID;
@@ -17,7 +17,6 @@
 package net.fabricmc.fabric.mixin.attachment;
 
 import java.util.IdentityHashMap;
-import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 
@@ -35,15 +34,16 @@ import net.minecraft.world.chunk.Chunk;
 
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 import net.fabricmc.fabric.impl.attachment.AttachmentSerializingImpl;
+import net.fabricmc.fabric.impl.attachment.AttachmentStorage;
 import net.fabricmc.fabric.impl.attachment.AttachmentTargetImpl;
 import net.fabricmc.fabric.impl.attachment.AttachmentTypeImpl;
 import net.fabricmc.fabric.impl.attachment.sync.AttachmentChange;
-import net.fabricmc.fabric.impl.attachment.sync.s2c.AttachmentSyncPayloadS2C;
+import net.fabricmc.fabric.impl.attachment.sync.AttachmentSyncQueue;
 
 @Mixin({BlockEntity.class, Entity.class, World.class, Chunk.class})
 abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 	@Nullable
-	private IdentityHashMap<AttachmentType<?>, Object> fabric_dataAttachments = null;
+	private AttachmentStorage fabric_dataAttachments = null;
 	@Nullable
 	private IdentityHashMap<AttachmentType<?>, AttachmentChange> fabric_syncedAttachments = null;
 
@@ -63,7 +63,7 @@ abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 		if (this.fabric_shouldTryToSync() && type.isSynced()) {
 			AttachmentChange change = AttachmentChange.create(fabric_getSyncTargetInfo(), type, value, fabric_getDynamicRegistryManager());
 			acknowledgeSyncedEntry(type, change);
-			this.fabric_syncChange(type, new AttachmentSyncPayloadS2C(List.of(change)));
+			AttachmentSyncQueue.enqueue(this, change);
 		}
 
 		if (value == null) {
@@ -74,7 +74,7 @@ abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 			return (T) fabric_dataAttachments.remove(type);
 		} else {
 			if (fabric_dataAttachments == null) {
-				fabric_dataAttachments = new IdentityHashMap<>();
+				fabric_dataAttachments = new AttachmentStorage();
 			}
 
 			return (T) fabric_dataAttachments.put(type, value);
@@ -95,7 +95,8 @@ abstract class AttachmentTargetsMixin implements AttachmentTargetImpl {
 	public void fabric_readAttachmentsFromNbt(NbtCompound nbt, RegistryWrapper.WrapperLookup wrapperLookup) {
 		// Note on player targets: no syncing can happen here as the networkHandler is still null
 		// Instead it is done on player join (see AttachmentSync)
-		this.fabric_dataAttachments = AttachmentSerializingImpl.deserializeAttachmentData(nbt, wrapperLookup);
+		Map<AttachmentType<?>, Object> attachments = AttachmentSerializingImpl.deserializeAttachmentData(nbt, wrapperLookup);
+		this.fabric_dataAttachments = attachments == null ? null : new AttachmentStorage(attachments);
 
 		if (this.fabric_shouldTryToSync() && this.fabric_dataAttachments != null) {
 			this.fabric_dataAttachments.forEach((type, value) -> {
@@ -0,0 +1,42 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.mixin.attachment;
+
+import java.util.function.BooleanSupplier;
+
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+import net.minecraft.server.MinecraftServer;
+
+import net.fabricmc.fabric.impl.attachment.sync.AttachmentSyncQueue;
+
+// Applied after the default priority, so that the flush runs after the END_SERVER_TICK event injected at the tail of tick.
+@Mixin(value = MinecraftServer.class, priority = 1100)
+abstract class MinecraftServerMixin {
+	@Inject(method = "tick", at = @At("TAIL"))
+	private void flushAttachmentChanges(BooleanSupplier shouldKeepTicking, CallbackInfo ci) {
+		AttachmentSyncQueue.flush();
+	}
+
+	@Inject(method = "shutdown", at = @At("TAIL"))
+	private void clearAttachmentChanges(CallbackInfo ci) {
+		AttachmentSyncQueue.clear();
+	}
+}
@@ -29,7 +29,10 @@ import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.util.ArrayList;
 import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.function.UnaryOperator;
 
@@ -45,11 +48,17 @@ import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityType;
 import net.minecraft.entity.MarkerEntity;
+import net.minecraft.item.Item;
+import net.minecraft.item.Items;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
 import net.minecraft.nbt.NbtOps;
+import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
 import net.minecraft.registry.RegistryOps;
+import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.Identifier;
 import net.minecraft.util.math.BlockPos;
@@ -62,6 +71,7 @@ import net.fabricmc.fabric.api.attachment.v1.AttachmentTarget;
 import net.fabricmc.fabric.api.attachment.v1.AttachmentType;
 import net.fabricmc.fabric.impl.attachment.AttachmentPersistentState;
 import net.fabricmc.fabric.impl.attachment.AttachmentSerializingImpl;
+import net.fabricmc.fabric.impl.attachment.AttachmentStorage;
 import net.fabricmc.fabric.impl.attachment.AttachmentTargetImpl;
 
 public class CommonAttachmentTests {
@@ -165,6 +175,148 @@ public class CommonAttachmentTests {
 		assertEquals(0.5d, entry.getValue());
 	}
 
+	@Test
+	void testBinaryReadWrite() {
+		AttachmentType<Double> binary = AttachmentRegistry.create(
+				Identifier.of(MOD_ID, "binary"),
+				builder -> builder.persistent(Codec.DOUBLE, PacketCodecs.DOUBLE)
+		);
+		AttachmentType<Double> dummy = AttachmentRegistry.createPersistent(
+				Identifier.of(MOD_ID, "binary_dummy"),
+				Codec.DOUBLE
+		);
+		var map = new IdentityHashMap<AttachmentType<?>, Object>();
+		map.put(binary, 0.25d);
+		map.put(dummy, 0.75d);
+		var fakeSave = new NbtCompound();
+
+		AttachmentSerializingImpl.serializeAttachmentData(fakeSave, mockDRM(), map);
+		NbtCompound compound = fakeSave.getCompound(AttachmentTarget.NBT_ATTACHMENT_KEY);
+		// The binary attachment is not stored under its identifier, the other one still is
+		assertFalse(compound.contains(binary.identifier().toString()));
+		assertTrue(compound.contains(dummy.identifier().toString()));
+
+		map = AttachmentSerializingImpl.deserializeAttachmentData(fakeSave, mockDRM());
+		assertEquals(2, map.size());
+		assertEquals(0.25d, map.get(binary));
+		assertEquals(0.75d, map.get(dummy));
+
+		// Data saved with the codec is still read
+		var codecSave = new NbtCompound();
+		var codecCompound = new NbtCompound();
+		codecCompound.putDouble(binary.identifier().toString(), 0.5d);
+		codecSave.put(AttachmentTarget.NBT_ATTACHMENT_KEY, codecCompound);
+		map = AttachmentSerializingImpl.deserializeAttachmentData(codecSave, mockDRM());
+		assertEquals(0.5d, map.get(binary));
+	}
+
+	@Test
+	void testAttachmentStorage() {
+		AttachmentType<String> first = AttachmentRegistry.create(Identifier.of(MOD_ID, "storage_first"));
+		AttachmentType<String> second = AttachmentRegistry.create(Identifier.of(MOD_ID, "storage_second"));
+		var storage = new AttachmentStorage();
+
+		assertNull(storage.put(second, "b"));
+		assertNull(storage.put(first, "a"));
+		assertEquals("b", storage.put(second, "c"));
+		assertEquals(2, storage.size());
+		assertEquals("a", storage.get(first));
+		assertEquals(Map.of(first, "a", second, "c"), new IdentityHashMap<>(storage));
+
+		assertEquals("a", storage.remove(first));
+		assertNull(storage.remove(first));
+		assertFalse(storage.containsKey(first));
+		assertEquals(1, storage.size());
+		assertEquals(Map.of(second, "c"), new IdentityHashMap<>(storage));
+	}
+
+	@Test
+	void testSparseAttachmentStorage() {
+		// Register enough types for the last ones to be stored in the sparse arrays.
+		List<AttachmentType<String>> types = new ArrayList<>();
+
+		for (int i = 0; i < 80; i++) {
+			types.add(AttachmentRegistry.create(Identifier.of(MOD_ID, "storage_sparse_" + i)));
+		}
+
+		AttachmentType<String> dense = types.get(0);
+		AttachmentType<String> late = types.get(79);
+		AttachmentType<String> middle = types.get(60);
+		AttachmentType<String> early = types.get(50);
+		var storage = new AttachmentStorage();
+
+		assertNull(storage.put(late, "late"));
+		assertNull(storage.put(early, "early"));
+		assertNull(storage.put(middle, "middle"));
+		assertNull(storage.put(dense, "dense"));
+		assertEquals("middle", storage.put(middle, "middle2"));
+		assertEquals(4, storage.size());
+		assertEquals("late", storage.get(late));
+		assertNull(storage.get(types.get(70)));
+		assertEquals(Map.of(dense, "dense", early, "early", middle, "middle2", late, "late"), new IdentityHashMap<>(storage));
+
+		// Removing through the iterator must not skip the entries shifted down.
+		Iterator<Map.Entry<AttachmentType<?>, Object>> iterator = storage.entrySet().iterator();
+		List<AttachmentType<?>> seen = new ArrayList<>();
+
+		while (iterator.hasNext()) {
+			AttachmentType<?> type = iterator.next().getKey();
+			seen.add(type);
+
+			if (type == early) {
+				iterator.remove();
+			}
+		}
+
+		assertEquals(List.of(dense, early, middle, late), seen);
+		assertEquals(3, storage.size());
+		assertNull(storage.get(early));
+		assertEquals("middle2", storage.remove(middle));
+		assertEquals(Map.of(dense, "dense", late, "late"), new IdentityHashMap<>(storage));
+
+		storage.clear();
+		assertEquals(0, storage.size());
+		assertNull(storage.get(late));
+	}
+
+	@Test
+	void testBinaryWithoutDynamicRegistries() {
+		AttachmentType<Double> binary = AttachmentRegistry.create(
+				Identifier.of(MOD_ID, "binary_plain_lookup"),
+				builder -> builder.persistent(Codec.DOUBLE, PacketCodecs.DOUBLE)
+		);
+		var map = new IdentityHashMap<AttachmentType<?>, Object>();
+		map.put(binary, 0.25d);
+		var fakeSave = new NbtCompound();
+		// The binary format doesn't need the dynamic registries, so a plain wrapper lookup must not lose the data
+		RegistryWrapper.WrapperLookup wrapperLookup = mock(RegistryWrapper.WrapperLookup.class);
+
+		AttachmentSerializingImpl.serializeAttachmentData(fakeSave, wrapperLookup, map);
+		map = AttachmentSerializingImpl.deserializeAttachmentData(fakeSave, wrapperLookup);
+		assertNotNull(map);
+		assertEquals(0.25d, map.get(binary));
+	}
+
+	@Test
+	void testBinaryRegistryCodecFallback() {
+		// Raw registry ids can change between sessions, so this binary codec must not be used to save the attachment
+		AttachmentType<Item> registryDependent = AttachmentRegistry.create(
+				Identifier.of(MOD_ID, "binary_registry"),
+				builder -> builder.persistent(Registries.ITEM.getCodec(), PacketCodecs.registryValue(RegistryKeys.ITEM))
+		);
+		var map = new IdentityHashMap<AttachmentType<?>, Object>();
+		map.put(registryDependent, Items.DIAMOND);
+		var fakeSave = new NbtCompound();
+
+		AttachmentSerializingImpl.serializeAttachmentData(fakeSave, mockDRM(), map);
+		NbtCompound compound = fakeSave.getCompound(AttachmentTarget.NBT_ATTACHMENT_KEY);
+		assertTrue(compound.contains(registryDependent.identifier().toString()));
+
+		map = AttachmentSerializingImpl.deserializeAttachmentData(fakeSave, mockDRM());
+		assertNotNull(map);
+		assertEquals(Items.DIAMOND, map.get(registryDependent));
+	}
+
 	@Test
 	void deserializeNull() {
 		var nbt = new NbtCompound();
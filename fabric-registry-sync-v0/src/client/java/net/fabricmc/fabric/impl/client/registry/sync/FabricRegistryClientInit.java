@@ -16,45 +16,171 @@
 
 package net.fabricmc.fabric.impl.client.registry.sync;
 
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.zip.DataFormatException;
 
+import com.google.common.hash.HashCode;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import net.minecraft.text.Text;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.Util;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.networking.v1.ClientConfigurationNetworking;
 import net.fabricmc.fabric.impl.registry.sync.RegistrySyncManager;
 import net.fabricmc.fabric.impl.registry.sync.RemapException;
 import net.fabricmc.fabric.impl.registry.sync.SyncCompletePayload;
+import net.fabricmc.fabric.impl.registry.sync.packet.CachedRegistrySync;
 import net.fabricmc.fabric.impl.registry.sync.packet.RegistryPacketHandler;
+import net.fabricmc.loader.api.FabricLoader;
 
 public class FabricRegistryClientInit implements ClientModInitializer {
 	private static final Logger LOGGER = LoggerFactory.getLogger(FabricRegistryClientInit.class);
 
+	private final RegistrySyncCache cache = new RegistrySyncCache(FabricLoader.getInstance().getGameDir().resolve(".fabric").resolve("registry-sync-cache"));
+
+	/**
+	 * State of the cached sync in progress, set once the missing registries are requested.
+	 */
+	@Nullable
+	private volatile PendingSync pending;
+
 	@Override
 	public void onInitializeClient() {
 		registerSyncPacketReceiver(RegistrySyncManager.DIRECT_PACKET_HANDLER);
+		ClientConfigurationNetworking.registerGlobalReceiver(CachedRegistrySync.HashesPayload.ID, this::receiveHashes);
+		ClientConfigurationNetworking.registerGlobalReceiver(CachedRegistrySync.CompressedPayload.ID, this::receiveCompressed);
+	}
+
+	private void receiveHashes(CachedRegistrySync.HashesPayload payload, ClientConfigurationNetworking.Context context) {
+		pending = null;
+
+		// Reading and hashing the cached registries is done off the network thread.
+		CompletableFuture.runAsync(() -> {
+			Map<Identifier, Object2IntMap<Identifier>> registries = new LinkedHashMap<>();
+			List<Identifier> missing = new ArrayList<>();
+
+			for (Map.Entry<Identifier, HashCode> entry : payload.hashes().entrySet()) {
+				Object2IntMap<Identifier> idMap = cache.get(entry.getKey(), entry.getValue());
+
+				if (idMap != null) {
+					registries.put(entry.getKey(), idMap);
+				} else {
+					missing.add(entry.getKey());
+				}
+			}
+
+			if (RegistrySyncManager.DEBUG) {
+				LOGGER.info("Registry sync cache: {} registries cached, {} requested", registries.size(), missing.size());
+			}
+
+			if (missing.isEmpty()) {
+				completeSync(context, registries);
+				return;
+			}
+
+			// Set before sending the request, the server only sends the registries after receiving it.
+			pending = new PendingSync(payload.hashes(), registries);
+			context.responseSender().sendPacket(new CachedRegistrySync.RequestPayload(missing));
+		}, Util.getIoWorkerExecutor()).whenComplete((unused, throwable) -> {
+			if (throwable != null) {
+				handleCompletion(context, false, throwable);
+			}
+		});
+	}
+
+	private void receiveCompressed(CachedRegistrySync.CompressedPayload payload, ClientConfigurationNetworking.Context context) {
+		PendingSync sync = pending;
+
+		if (sync == null) {
+			LOGGER.warn("Received registry sync data that was not requested");
+			return;
+		}
+
+		if (payload.data().length != 0) {
+			if (sync.data.size() + payload.data().length > CachedRegistrySync.MAX_COMPRESSED_SIZE) {
+				pending = null;
+				handleCompletion(context, false, new RemapException("Registry sync data exceeds " + CachedRegistrySync.MAX_COMPRESSED_SIZE + " compressed bytes"));
+				return;
+			}
+
+			sync.data.writeBytes(payload.data());
+			return;
+		}
+
+		pending = null;
+		byte[] data = sync.data.toByteArray();
+
+		// Decompressing, hashing and caching the received registries is done off the network thread.
+		CompletableFuture.supplyAsync(() -> {
+			try {
+				return CachedRegistrySync.decompress(data);
+			} catch (DataFormatException e) {
+				throw new CompletionException(e);
+			}
+		}, Util.getMainWorkerExecutor()).thenAcceptAsync(received -> {
+			if (RegistrySyncManager.DEBUG) {
+				LOGGER.info("Registry sync cache: received {} registries in {} compressed bytes", received.size(), data.length);
+			}
+
+			for (Map.Entry<Identifier, Object2IntMap<Identifier>> entry : received.entrySet()) {
+				HashCode hash = sync.hashes.get(entry.getKey());
+
+				if (hash != null) {
+					cache.put(entry.getKey(), hash, entry.getValue());
+					sync.registries.put(entry.getKey(), entry.getValue());
+				}
+			}
+
+			cache.prune();
+			completeSync(context, sync.registries);
+		}, Util.getIoWorkerExecutor()).whenComplete((unused, throwable) -> {
+			if (throwable != null) {
+				handleCompletion(context, false, throwable);
+			}
+		});
+	}
+
+	private void completeSync(ClientConfigurationNetworking.Context context, Map<Identifier, Object2IntMap<Identifier>> registries) {
+		RegistrySyncManager.applyRemote(context.client(), registries, RegistrySyncManager.DEBUG || !context.client().isInSingleplayer())
+				.whenComplete((complete, throwable) -> handleCompletion(context, complete, throwable));
 	}
 
 	private <T extends RegistryPacketHandler.RegistrySyncPayload> void registerSyncPacketReceiver(RegistryPacketHandler<T> packetHandler) {
 		ClientConfigurationNetworking.registerGlobalReceiver(packetHandler.getPacketId(), (payload, context) -> {
 			RegistrySyncManager.receivePacket(context.client(), packetHandler, payload, RegistrySyncManager.DEBUG || !context.client().isInSingleplayer())
-					.whenComplete((complete, throwable) -> {
-						if (throwable != null) {
-							LOGGER.error("Registry remapping failed!", throwable);
-							context.client().execute(() -> context.responseSender().disconnect(getText(throwable)));
-							return;
-						}
-
-						if (complete) {
-							context.responseSender().sendPacket(SyncCompletePayload.INSTANCE);
-						}
-					});
+					.whenComplete((complete, throwable) -> handleCompletion(context, complete, throwable));
 		});
 	}
 
+	private void handleCompletion(ClientConfigurationNetworking.Context context, Boolean complete, @Nullable Throwable throwable) {
+		if (throwable != null) {
+			LOGGER.error("Registry remapping failed!", throwable);
+			context.client().execute(() -> context.responseSender().disconnect(getText(throwable)));
+			return;
+		}
+
+		if (complete) {
+			context.responseSender().sendPacket(SyncCompletePayload.INSTANCE);
+		}
+	}
+
+	private record PendingSync(Map<Identifier, HashCode> hashes, Map<Identifier, Object2IntMap<Identifier>> registries, ByteArrayOutputStream data) {
+		PendingSync(Map<Identifier, HashCode> hashes, Map<Identifier, Object2IntMap<Identifier>> registries) {
+			this(hashes, registries, new ByteArrayOutputStream());
+		}
+	}
+
 	private Text getText(Throwable e) {
 		if (e instanceof RemapException remapException) {
 			final Text text = remapException.getText();
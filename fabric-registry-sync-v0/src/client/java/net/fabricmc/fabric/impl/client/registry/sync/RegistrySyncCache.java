@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.client.registry.sync;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import com.google.common.hash.HashCode;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.impl.registry.sync.packet.CachedRegistrySync;
+
+/**
+ * Stores registries received from servers, one file per registry named after its hash.
+ * The least recently used files are deleted once the cache holds more than {@link #MAX_ENTRIES} registries.
+ */
+final class RegistrySyncCache {
+	private static final Logger LOGGER = LoggerFactory.getLogger(RegistrySyncCache.class);
+	private static final int MAX_ENTRIES = Integer.getInteger("fabric.registry.cache.maxEntries", 256);
+	private static final String EXTENSION = ".bin";
+
+	private final Path directory;
+
+	RegistrySyncCache(Path directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Reads a registry from the cache.
+	 *
+	 * @return the id map of the registry, or {@code null} if it is not cached or the cached file is invalid
+	 */
+	@Nullable
+	Object2IntMap<Identifier> get(Identifier registryId, HashCode hash) {
+		Path file = getFile(hash);
+		byte[] data;
+
+		try {
+			data = Files.readAllBytes(file);
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException e) {
+			LOGGER.warn("Failed to read cached registry {} from {}", registryId, file, e);
+			return null;
+		}
+
+		Object2IntMap<Identifier> idMap = null;
+
+		if (CachedRegistrySync.hash(data).equals(hash)) {
+			try {
+				Map<Identifier, Object2IntMap<Identifier>> registries = CachedRegistrySync.decodeRegistries(data);
+				idMap = registries.size() == 1 ? registries.get(registryId) : null;
+			} catch (RuntimeException e) {
+				LOGGER.warn("Failed to decode cached registry {} from {}", registryId, file, e);
+			}
+		}
+
+		if (idMap == null) {
+			delete(file);
+			return null;
+		}
+
+		try {
+			// Mark the file as recently used.
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+		} catch (IOException e) {
+			LOGGER.debug("Failed to update the modification time of {}", file, e);
+		}
+
+		return idMap;
+	}
+
+	/**
+	 * Stores a registry in the cache, if its encoding matches the hash sent by the server.
+	 */
+	void put(Identifier registryId, HashCode hash, Object2IntMap<Identifier> idMap) {
+		byte[] data = CachedRegistrySync.encodeRegistry(registryId, idMap);
+
+		if (!CachedRegistrySync.hash(data).equals(hash)) {
+			LOGGER.debug("Not caching registry {}: its hash does not match the one sent by the server", registryId);
+			return;
+		}
+
+		Path file = getFile(hash);
+
+		try {
+			Files.createDirectories(directory);
+			Path tempFile = Files.createTempFile(directory, hash.toString(), ".tmp");
+			Files.write(tempFile, data);
+			Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to cache registry {} to {}", registryId, file, e);
+		}
+	}
+
+	/**
+	 * Deletes the least recently used files above {@link #MAX_ENTRIES}.
+	 */
+	void prune() {
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+
+		List<Path> files;
+
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = new ArrayList<>(stream.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).toList());
+		} catch (IOException e) {
+			LOGGER.warn("Failed to list the registry cache in {}", directory, e);
+			return;
+		}
+
+		if (files.size() <= MAX_ENTRIES) {
+			return;
+		}
+
+		files.sort(Comparator.comparing(RegistrySyncCache::getLastModifiedTime));
+
+		for (int i = 0; i < files.size() - MAX_ENTRIES; i++) {
+			delete(files.get(i));
+		}
+	}
+
+	private Path getFile(HashCode hash) {
+		// HashCode.toString is lowercase hex, safe to use as a file name.
+		return directory.resolve(hash + EXTENSION);
+	}
+
+	private static FileTime getLastModifiedTime(Path file) {
+		try {
+			return Files.getLastModifiedTime(file);
+		} catch (IOException e) {
+			return FileTime.fromMillis(0);
+		}
+	}
+
+	private static void delete(Path file) {
+		try {
+			Files.deleteIfExists(file);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to delete cached registry {}", file, e);
+		}
+	}
+}
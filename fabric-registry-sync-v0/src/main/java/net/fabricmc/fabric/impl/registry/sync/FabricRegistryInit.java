@@ -24,6 +24,7 @@ import net.fabricmc.fabric.api.event.registry.RegistryAttributeHolder;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationConnectionEvents;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
+import net.fabricmc.fabric.impl.registry.sync.packet.CachedRegistrySync;
 import net.fabricmc.fabric.impl.registry.sync.packet.DirectRegistryPacketHandler;
 
 public class FabricRegistryInit implements ModInitializer {
@@ -31,11 +32,17 @@ public class FabricRegistryInit implements ModInitializer {
 	public void onInitialize() {
 		PayloadTypeRegistry.configurationC2S().register(SyncCompletePayload.ID, SyncCompletePayload.CODEC);
 		PayloadTypeRegistry.configurationS2C().register(DirectRegistryPacketHandler.Payload.ID, DirectRegistryPacketHandler.Payload.CODEC);
+		PayloadTypeRegistry.configurationS2C().register(CachedRegistrySync.HashesPayload.ID, CachedRegistrySync.HashesPayload.CODEC);
+		PayloadTypeRegistry.configurationS2C().register(CachedRegistrySync.CompressedPayload.ID, CachedRegistrySync.CompressedPayload.CODEC);
+		PayloadTypeRegistry.configurationC2S().register(CachedRegistrySync.RequestPayload.ID, CachedRegistrySync.RequestPayload.CODEC);
 
 		ServerConfigurationConnectionEvents.BEFORE_CONFIGURE.register(RegistrySyncManager::configureClient);
 		ServerConfigurationNetworking.registerGlobalReceiver(SyncCompletePayload.ID, (payload, context) -> {
 			context.networkHandler().completeTask(RegistrySyncManager.SyncConfigurationTask.KEY);
 		});
+		ServerConfigurationNetworking.registerGlobalReceiver(CachedRegistrySync.RequestPayload.ID, (payload, context) -> {
+			RegistrySyncManager.sendRequestedRegistries(context.networkHandler(), context.responseSender(), payload);
+		});
 
 		// Synced in PlaySoundS2CPacket.
 		RegistryAttributeHolder.get(Registries.SOUND_EVENT)
@@ -28,6 +28,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Consumer;
 
 import com.google.common.base.Joiner;
@@ -57,9 +58,12 @@ import net.minecraft.util.thread.ThreadExecutor;
 
 import net.fabricmc.fabric.api.event.registry.RegistryAttribute;
 import net.fabricmc.fabric.api.event.registry.RegistryAttributeHolder;
+import net.fabricmc.fabric.api.networking.v1.PacketSender;
 import net.fabricmc.fabric.api.networking.v1.ServerConfigurationNetworking;
+import net.fabricmc.fabric.impl.registry.sync.packet.CachedRegistrySync;
 import net.fabricmc.fabric.impl.registry.sync.packet.DirectRegistryPacketHandler;
 import net.fabricmc.fabric.impl.registry.sync.packet.RegistryPacketHandler;
+import net.fabricmc.fabric.mixin.registry.sync.ServerConfigurationNetworkHandlerAccessor;
 
 public final class RegistrySyncManager {
 	public static final boolean DEBUG = Boolean.getBoolean("fabric.registry.debug");
@@ -72,6 +76,14 @@ public final class RegistrySyncManager {
 	//Set to true after vanilla's bootstrap has completed
 	public static boolean postBootstrap = false;
 
+	/**
+	 * The registry map sent to joining clients, computed on first use and cleared whenever the local raw ids change.
+	 * The same instance is passed to the packet handler so that its encoded payloads can be reused across joins.
+	 */
+	@Nullable
+	private static Map<Identifier, Object2IntMap<Identifier>> cachedRegistryMap;
+	private static boolean hasCachedRegistryMap = false;
+
 	private RegistrySyncManager() { }
 
 	public static void configureClient(ServerConfigurationNetworkHandler handler, MinecraftServer server) {
@@ -80,19 +92,41 @@ public final class RegistrySyncManager {
 			return;
 		}
 
-		if (!ServerConfigurationNetworking.canSend(handler, DIRECT_PACKET_HANDLER.getPacketId())) {
+		final boolean cached = ServerConfigurationNetworking.canSend(handler, CachedRegistrySync.HashesPayload.ID)
+				&& ServerConfigurationNetworking.canSend(handler, CachedRegistrySync.CompressedPayload.ID);
+
+		if (!cached && !ServerConfigurationNetworking.canSend(handler, DIRECT_PACKET_HANDLER.getPacketId())) {
 			// Don't send if the client cannot receive
 			return;
 		}
 
-		final Map<Identifier, Object2IntMap<Identifier>> map = RegistrySyncManager.createAndPopulateRegistryMap();
+		final Map<Identifier, Object2IntMap<Identifier>> map = RegistrySyncManager.getRegistryMapToSync();
 
 		if (map == null) {
 			// Don't send when there is nothing to map
 			return;
 		}
 
-		handler.addTask(new SyncConfigurationTask(handler, map));
+		handler.addTask(cached ? new CachedSyncConfigurationTask(handler, map) : new SyncConfigurationTask(handler, map));
+	}
+
+	/**
+	 * Sends the registries requested by a client that did not find them in its cache.
+	 *
+	 * <p>Compressing the requested registries is expensive and runs on the network thread, so a client may only send
+	 * a single request, while its {@link CachedSyncConfigurationTask} is running. Other requests disconnect the client.
+	 */
+	public static void sendRequestedRegistries(ServerConfigurationNetworkHandler handler, PacketSender sender, CachedRegistrySync.RequestPayload payload) {
+		if (!(((ServerConfigurationNetworkHandlerAccessor) handler).getCurrentTask() instanceof CachedSyncConfigurationTask task) || !task.acceptRequest()) {
+			LOGGER.warn("Received an unexpected registry sync request from {}", handler.getDebugProfile().getName());
+			sender.disconnect(Text.literal("Unexpected registry sync request"));
+			return;
+		}
+
+		// Send the registries of the hashes the client received, even if the registry map changed since then.
+		for (CachedRegistrySync.CompressedPayload compressedPayload : CachedRegistrySync.getPayloads(task.map(), payload.registries())) {
+			sender.sendPacket(compressedPayload);
+		}
 	}
 
 	public record SyncConfigurationTask(
@@ -112,6 +146,42 @@ public final class RegistrySyncManager {
 		}
 	}
 
+	/**
+	 * Sends the hashes of the synced registries to a client with a registry cache.
+	 * The client requests the registries it doesn't have, and completes the task like {@link SyncConfigurationTask}.
+	 */
+	public static final class CachedSyncConfigurationTask implements ServerPlayerConfigurationTask {
+		private final ServerConfigurationNetworkHandler handler;
+		private final Map<Identifier, Object2IntMap<Identifier>> map;
+		private final AtomicBoolean requested = new AtomicBoolean();
+
+		public CachedSyncConfigurationTask(ServerConfigurationNetworkHandler handler, Map<Identifier, Object2IntMap<Identifier>> map) {
+			this.handler = handler;
+			this.map = map;
+		}
+
+		public Map<Identifier, Object2IntMap<Identifier>> map() {
+			return map;
+		}
+
+		/**
+		 * Returns {@code true} the first time it is called, and {@code false} afterwards.
+		 */
+		boolean acceptRequest() {
+			return requested.compareAndSet(false, true);
+		}
+
+		@Override
+		public void sendPacket(Consumer<Packet<?>> sender) {
+			handler.sendPacket(ServerConfigurationNetworking.createS2CPacket(new CachedRegistrySync.HashesPayload(CachedRegistrySync.getHashes(map))));
+		}
+
+		@Override
+		public Key getKey() {
+			return SyncConfigurationTask.KEY;
+		}
+	}
+
 	public static <T extends RegistryPacketHandler.RegistrySyncPayload> CompletableFuture<Boolean> receivePacket(ThreadExecutor<?> executor, RegistryPacketHandler<T> handler, T payload, boolean accept) {
 		handler.receivePayload(payload);
 
@@ -126,8 +196,10 @@ public final class RegistrySyncManager {
 			LOGGER.info("{} deflated size: {}", handlerName, handler.getDeflatedBufSize());
 		}
 
-		Map<Identifier, Object2IntMap<Identifier>> map = handler.getSyncedRegistryMap();
+		return applyRemote(executor, handler.getSyncedRegistryMap(), accept);
+	}
 
+	public static CompletableFuture<Boolean> applyRemote(ThreadExecutor<?> executor, @Nullable Map<Identifier, Object2IntMap<Identifier>> map, boolean accept) {
 		if (!accept) {
 			return CompletableFuture.completedFuture(true);
 		}
@@ -146,6 +218,26 @@ public final class RegistrySyncManager {
 		});
 	}
 
+	/**
+	 * Gets the {@link Map} used to sync the registry ids, creating it if the registries changed since it was last created.
+	 *
+	 * @return a {@link Map} to sync, null when empty
+	 */
+	@Nullable
+	private static synchronized Map<Identifier, Object2IntMap<Identifier>> getRegistryMapToSync() {
+		if (!hasCachedRegistryMap) {
+			cachedRegistryMap = createAndPopulateRegistryMap();
+			hasCachedRegistryMap = true;
+		}
+
+		return cachedRegistryMap;
+	}
+
+	private static synchronized void invalidateRegistryMapToSync() {
+		cachedRegistryMap = null;
+		hasCachedRegistryMap = false;
+	}
+
 	/**
 	 * Creates a {@link Map} used to sync the registry ids.
 	 *
@@ -259,6 +351,8 @@ public final class RegistrySyncManager {
 			checkRemoteRemap(map);
 		}
 
+		invalidateRegistryMapToSync();
+
 		Set<Identifier> containedRegistries = Sets.newHashSet(map.keySet());
 
 		for (Identifier registryId : Registries.REGISTRIES.getIds()) {
@@ -360,6 +454,8 @@ public final class RegistrySyncManager {
 	}
 
 	public static void unmap() throws RemapException {
+		invalidateRegistryMapToSync();
+
 		for (Identifier registryId : Registries.REGISTRIES.getIds()) {
 			Registry registry = Registries.REGISTRIES.get(registryId);
 
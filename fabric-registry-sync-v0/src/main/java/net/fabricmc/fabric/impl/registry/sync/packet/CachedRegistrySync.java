@@ -0,0 +1,300 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.registry.sync.packet;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.network.PacketByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.packet.CustomPayload;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
+
+/**
+ * Registry sync for clients that keep a cache of the registries they received before.
+ *
+ * <p>The server first sends a {@link HashesPayload} with a hash of each synced registry.
+ * The client answers with a {@link RequestPayload} listing the registries missing from its cache,
+ * and the server sends only those registries, deflate-compressed and split into {@link CompressedPayload}s.
+ * A client reconnecting to a server whose registries did not change only receives the hashes.
+ *
+ * <p>Registries are hashed in the format of {@link DirectRegistryPacketHandler}, one registry at a time.
+ * Decoding and re-encoding a registry in that format produces the same bytes,
+ * which lets the client check the registries it reads back from its cache.
+ */
+public final class CachedRegistrySync {
+	/**
+	 * Limit on the size of the decompressed registry data, to protect clients from malicious servers.
+	 */
+	private static final int MAX_INFLATED_SIZE = Integer.getInteger("fabric.registry.cached.maxInflatedSize", 0x4000000);
+	/**
+	 * Limit on the size of the compressed registry data a client buffers before decompressing it.
+	 */
+	public static final int MAX_COMPRESSED_SIZE = Integer.getInteger("fabric.registry.cached.maxCompressedSize", 0x1000000);
+
+	@Nullable
+	private static volatile HashedRegistryMap lastHashed;
+	@Nullable
+	private static volatile CompressedRegistryMap lastCompressed;
+
+	private CachedRegistrySync() {
+	}
+
+	/**
+	 * Returns the hash of each registry of the map, reusing the last computed hashes if the same map instance is passed again.
+	 */
+	public static Map<Identifier, HashCode> getHashes(Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		HashedRegistryMap hashed = lastHashed;
+
+		if (hashed == null || hashed.registryMap() != registryMap) {
+			Map<Identifier, HashCode> hashes = new LinkedHashMap<>();
+
+			for (Map.Entry<Identifier, Object2IntMap<Identifier>> entry : registryMap.entrySet()) {
+				hashes.put(entry.getKey(), hash(encodeRegistry(entry.getKey(), entry.getValue())));
+			}
+
+			hashed = new HashedRegistryMap(registryMap, hashes);
+			lastHashed = hashed;
+		}
+
+		return hashed.hashes();
+	}
+
+	/**
+	 * Encodes a single registry, in the format used both for hashing and for the client cache.
+	 */
+	public static byte[] encodeRegistry(Identifier registryId, Object2IntMap<Identifier> idMap) {
+		PacketByteBuf buf = PacketByteBufs.create();
+
+		try {
+			DirectRegistryPacketHandler.writeRegistryMap(buf, Map.of(registryId, idMap));
+			byte[] data = new byte[buf.readableBytes()];
+			buf.readBytes(data);
+			return data;
+		} finally {
+			buf.release();
+		}
+	}
+
+	public static Map<Identifier, Object2IntMap<Identifier>> decodeRegistries(byte[] data) {
+		return DirectRegistryPacketHandler.readRegistryMap(new PacketByteBuf(Unpooled.wrappedBuffer(data)));
+	}
+
+	public static HashCode hash(byte[] data) {
+		return Hashing.sha256().hashBytes(data);
+	}
+
+	/**
+	 * Returns the payloads carrying the requested registries of the map.
+	 * Unknown registries are ignored, and the payloads for a request of every registry are reused across calls with the same map instance.
+	 */
+	public static List<CompressedPayload> getPayloads(Map<Identifier, Object2IntMap<Identifier>> registryMap, Collection<Identifier> requested) {
+		Map<Identifier, Object2IntMap<Identifier>> subMap = new LinkedHashMap<>();
+
+		for (Identifier registryId : requested) {
+			Object2IntMap<Identifier> idMap = registryMap.get(registryId);
+
+			if (idMap != null) {
+				subMap.put(registryId, idMap);
+			}
+		}
+
+		if (subMap.size() != registryMap.size()) {
+			return compress(subMap);
+		}
+
+		CompressedRegistryMap compressed = lastCompressed;
+
+		if (compressed == null || compressed.registryMap() != registryMap) {
+			compressed = new CompressedRegistryMap(registryMap, compress(registryMap));
+			lastCompressed = compressed;
+		}
+
+		return compressed.payloads();
+	}
+
+	private static List<CompressedPayload> compress(Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		PacketByteBuf buf = PacketByteBufs.create();
+		byte[] raw;
+
+		try {
+			DirectRegistryPacketHandler.writeRegistryMap(buf, registryMap);
+			raw = new byte[buf.readableBytes()];
+			buf.readBytes(raw);
+		} finally {
+			buf.release();
+		}
+
+		Deflater deflater = new Deflater();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] deflateBuffer = new byte[8192];
+
+		try {
+			deflater.setInput(raw);
+			deflater.finish();
+
+			while (!deflater.finished()) {
+				int length = deflater.deflate(deflateBuffer);
+				out.write(deflateBuffer, 0, length);
+			}
+		} finally {
+			deflater.end();
+		}
+
+		// Split the data to multiple MAX_PAYLOAD_SIZEd payloads, followed by an empty one marking the end.
+		byte[] deflated = out.toByteArray();
+		List<CompressedPayload> payloads = new ArrayList<>(deflated.length / DirectRegistryPacketHandler.MAX_PAYLOAD_SIZE + 2);
+
+		for (int start = 0; start < deflated.length; start += DirectRegistryPacketHandler.MAX_PAYLOAD_SIZE) {
+			int end = Math.min(deflated.length, start + DirectRegistryPacketHandler.MAX_PAYLOAD_SIZE);
+			payloads.add(new CompressedPayload(Arrays.copyOfRange(deflated, start, end)));
+		}
+
+		payloads.add(new CompressedPayload(new byte[0]));
+		return List.copyOf(payloads);
+	}
+
+	/**
+	 * Decompresses the concatenated data of the received {@link CompressedPayload}s.
+	 */
+	public static Map<Identifier, Object2IntMap<Identifier>> decompress(byte[] data) throws DataFormatException {
+		Inflater inflater = new Inflater();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		byte[] inflateBuffer = new byte[8192];
+
+		try {
+			inflater.setInput(data);
+
+			while (!inflater.finished()) {
+				int length = inflater.inflate(inflateBuffer);
+
+				if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+					throw new DataFormatException("Truncated registry sync data");
+				}
+
+				if (out.size() + length > MAX_INFLATED_SIZE) {
+					throw new DataFormatException("Registry sync data exceeds " + MAX_INFLATED_SIZE + " bytes");
+				}
+
+				out.write(inflateBuffer, 0, length);
+			}
+		} finally {
+			inflater.end();
+		}
+
+		return decodeRegistries(out.toByteArray());
+	}
+
+	private record HashedRegistryMap(Map<Identifier, Object2IntMap<Identifier>> registryMap, Map<Identifier, HashCode> hashes) {
+	}
+
+	private record CompressedRegistryMap(Map<Identifier, Object2IntMap<Identifier>> registryMap, List<CompressedPayload> payloads) {
+	}
+
+	public record HashesPayload(Map<Identifier, HashCode> hashes) implements CustomPayload {
+		public static final CustomPayload.Id<HashesPayload> ID = new Id<>(Identifier.of("fabric", "registry/sync/hashes"));
+		public static final PacketCodec<PacketByteBuf, HashesPayload> CODEC = CustomPayload.codecOf(HashesPayload::write, HashesPayload::new);
+
+		private HashesPayload(PacketByteBuf buf) {
+			this(readHashes(buf));
+		}
+
+		private void write(PacketByteBuf buf) {
+			buf.writeVarInt(hashes.size());
+
+			hashes.forEach((registryId, hash) -> {
+				buf.writeIdentifier(registryId);
+				buf.writeByteArray(hash.asBytes());
+			});
+		}
+
+		private static Map<Identifier, HashCode> readHashes(PacketByteBuf buf) {
+			int size = buf.readVarInt();
+			Map<Identifier, HashCode> hashes = new LinkedHashMap<>();
+
+			for (int i = 0; i < size; i++) {
+				Identifier registryId = buf.readIdentifier();
+				hashes.put(registryId, HashCode.fromBytes(buf.readByteArray(64)));
+			}
+
+			return hashes;
+		}
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+
+	public record RequestPayload(List<Identifier> registries) implements CustomPayload {
+		public static final CustomPayload.Id<RequestPayload> ID = new Id<>(Identifier.of("fabric", "registry/sync/request"));
+		public static final PacketCodec<PacketByteBuf, RequestPayload> CODEC = CustomPayload.codecOf(RequestPayload::write, RequestPayload::new);
+
+		private RequestPayload(PacketByteBuf buf) {
+			this(buf.readList(PacketByteBuf::readIdentifier));
+		}
+
+		private void write(PacketByteBuf buf) {
+			buf.writeCollection(registries, PacketByteBuf::writeIdentifier);
+		}
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+
+	public record CompressedPayload(byte[] data) implements CustomPayload {
+		public static final CustomPayload.Id<CompressedPayload> ID = new Id<>(Identifier.of("fabric", "registry/sync/compressed"));
+		public static final PacketCodec<PacketByteBuf, CompressedPayload> CODEC = CustomPayload.codecOf(CompressedPayload::write, CompressedPayload::new);
+
+		private CompressedPayload(PacketByteBuf buf) {
+			this(readAllBytes(buf));
+		}
+
+		private void write(PacketByteBuf buf) {
+			buf.writeBytes(data);
+		}
+
+		private static byte[] readAllBytes(PacketByteBuf buf) {
+			byte[] bytes = new byte[buf.readableBytes()];
+			buf.readBytes(bytes);
+			return bytes;
+		}
+
+		@Override
+		public Id<? extends CustomPayload> getId() {
+			return ID;
+		}
+	}
+}
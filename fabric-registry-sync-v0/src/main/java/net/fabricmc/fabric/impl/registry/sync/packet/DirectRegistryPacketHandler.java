@@ -17,18 +17,18 @@
 package net.fabricmc.fabric.impl.registry.sync.packet;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
-import java.util.stream.Collectors;
 
 import com.google.common.base.Preconditions;
+import it.unimi.dsi.fastutil.ints.IntArrays;
 import it.unimi.dsi.fastutil.objects.Object2IntLinkedOpenHashMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.VisibleForTesting;
 
 import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.codec.PacketCodec;
@@ -51,13 +51,16 @@ import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
  * </ul>
  *
  * <p>This method also split into multiple packets if it exceeds the limit, defaults to 1 MB.
+ *
+ * <p>The encoded payloads of the last sent registry map are kept, so that every player joining
+ * with the same registry map receives the same payloads without encoding the map again.
  */
 public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectRegistryPacketHandler.Payload> {
 	/**
 	 * @see net.minecraft.network.packet.s2c.play.CustomPayloadS2CPacket#MAX_PAYLOAD_SIZE
 	 */
 	@SuppressWarnings("JavadocReference")
-	private static final int MAX_PAYLOAD_SIZE = Integer.getInteger("fabric.registry.direct.maxPayloadSize", 0x100000);
+	static final int MAX_PAYLOAD_SIZE = Integer.getInteger("fabric.registry.direct.maxPayloadSize", 0x100000);
 
 	@Nullable
 	private PacketByteBuf combinedBuf;
@@ -68,6 +71,9 @@ public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectReg
 	private boolean isPacketFinished = false;
 	private int totalPacketReceived = 0;
 
+	@Nullable
+	private volatile EncodedRegistryMap lastEncoded;
+
 	@Override
 	public CustomPayload.Id<DirectRegistryPacketHandler.Payload> getPacketId() {
 		return Payload.ID;
@@ -75,90 +81,164 @@ public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectReg
 
 	@Override
 	public void sendPacket(Consumer<DirectRegistryPacketHandler.Payload> sender, Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		for (Payload payload : getPayloads(registryMap)) {
+			sender.accept(payload);
+		}
+	}
+
+	/**
+	 * Returns the payloads to send for the given registry map, reusing the last encoded payloads if the same map instance is passed again.
+	 * The returned payloads are shared and must not be modified.
+	 */
+	public List<Payload> getPayloads(Map<Identifier, Object2IntMap<Identifier>> registryMap) {
+		EncodedRegistryMap encoded = lastEncoded;
+
+		if (encoded == null || encoded.registryMap() != registryMap) {
+			encoded = new EncodedRegistryMap(registryMap, encode(registryMap));
+			lastEncoded = encoded;
+		}
+
+		return encoded.payloads();
+	}
+
+	/**
+	 * Encodes the registry map and splits it into payloads of at most {@link #MAX_PAYLOAD_SIZE} bytes,
+	 * followed by an empty payload marking the end of the data.
+	 */
+	@VisibleForTesting
+	public static List<Payload> encode(Map<Identifier, Object2IntMap<Identifier>> registryMap) {
 		PacketByteBuf buf = PacketByteBufs.create();
 
+		try {
+			writeRegistryMap(buf, registryMap);
+
+			// Split the packet to multiple MAX_PAYLOAD_SIZEd buffers.
+			int readableBytes = buf.readableBytes();
+			List<Payload> payloads = new ArrayList<>(readableBytes / MAX_PAYLOAD_SIZE + 2);
+			int sliceIndex = 0;
+
+			while (sliceIndex < readableBytes) {
+				int sliceSize = Math.min(readableBytes - sliceIndex, MAX_PAYLOAD_SIZE);
+				byte[] data = new byte[sliceSize];
+				buf.getBytes(sliceIndex, data);
+				payloads.add(new Payload(data));
+				sliceIndex += sliceSize;
+			}
+
+			// Send an empty buffer to mark the end of the split.
+			payloads.add(new Payload(new byte[0]));
+			return List.copyOf(payloads);
+		} finally {
+			buf.release();
+		}
+	}
+
+	/**
+	 * Writes the registry map in the format described in the class documentation.
+	 */
+	public static void writeRegistryMap(PacketByteBuf buf, Map<Identifier, Object2IntMap<Identifier>> registryMap) {
 		// Group registry ids with same namespace.
-		Map<String, List<Identifier>> regNamespaceGroups = registryMap.keySet().stream()
-				.collect(Collectors.groupingBy(Identifier::getNamespace));
+		Map<String, List<Identifier>> regNamespaceGroups = new LinkedHashMap<>();
+
+		for (Identifier regId : registryMap.keySet()) {
+			regNamespaceGroups.computeIfAbsent(regId.getNamespace(), namespace -> new ArrayList<>()).add(regId);
+		}
 
 		buf.writeVarInt(regNamespaceGroups.size());
 
-		regNamespaceGroups.forEach((regNamespace, regIds) -> {
-			buf.writeString(optimizeNamespace(regNamespace));
-			buf.writeVarInt(regIds.size());
+		for (Map.Entry<String, List<Identifier>> regNamespaceGroup : regNamespaceGroups.entrySet()) {
+			buf.writeString(optimizeNamespace(regNamespaceGroup.getKey()));
+			buf.writeVarInt(regNamespaceGroup.getValue().size());
 
-			for (Identifier regId : regIds) {
+			for (Identifier regId : regNamespaceGroup.getValue()) {
 				buf.writeString(regId.getPath());
+				writeIdMap(buf, registryMap.get(regId));
+			}
+		}
+	}
 
-				Object2IntMap<Identifier> idMap = registryMap.get(regId);
+	private static void writeIdMap(PacketByteBuf buf, Object2IntMap<Identifier> idMap) {
+		int size = idMap.size();
+		Identifier[] ids = new Identifier[size];
+		int[] rawIds = new int[size];
+		// Index of the namespace of each id, in order of first appearance to keep the original namespace ordering.
+		int[] groups = new int[size];
+		Object2IntMap<String> groupIndices = new Object2IntOpenHashMap<>();
+		List<String> groupNamespaces = new ArrayList<>();
+		int i = 0;
+
+		for (Object2IntMap.Entry<Identifier> entry : idMap.object2IntEntrySet()) {
+			ids[i] = entry.getKey();
+			rawIds[i] = entry.getIntValue();
+			String namespace = ids[i].getNamespace();
+			int group = groupIndices.getOrDefault(namespace, -1);
+
+			if (group == -1) {
+				group = groupNamespaces.size();
+				groupIndices.put(namespace, group);
+				groupNamespaces.add(namespace);
+			}
 
-				// Sort object ids by its namespace. We use linked map here to keep the original namespace ordering.
-				Map<String, List<Object2IntMap.Entry<Identifier>>> idNamespaceGroups = idMap.object2IntEntrySet().stream()
-						.collect(Collectors.groupingBy(e -> e.getKey().getNamespace(), LinkedHashMap::new, Collectors.toCollection(ArrayList::new)));
+			groups[i] = group;
+			i++;
+		}
 
-				buf.writeVarInt(idNamespaceGroups.size());
+		// Sort the ids by namespace group, then by raw id.
+		int[] order = new int[size];
 
-				int lastBulkLastRawId = 0;
+		for (int j = 0; j < size; j++) {
+			order[j] = j;
+		}
 
-				for (Map.Entry<String, List<Object2IntMap.Entry<Identifier>>> idNamespaceEntry : idNamespaceGroups.entrySet()) {
-					// Make sure the ids are sorted by its raw id.
-					List<Object2IntMap.Entry<Identifier>> idPairs = idNamespaceEntry.getValue();
-					idPairs.sort(Comparator.comparingInt(Object2IntMap.Entry::getIntValue));
+		IntArrays.quickSort(order, (a, b) -> {
+			int cmp = Integer.compare(groups[a], groups[b]);
+			return cmp != 0 ? cmp : Integer.compare(rawIds[a], rawIds[b]);
+		});
 
-					// Group consecutive raw ids together.
-					List<List<Object2IntMap.Entry<Identifier>>> bulks = new ArrayList<>();
+		buf.writeVarInt(groupNamespaces.size());
 
-					Iterator<Object2IntMap.Entry<Identifier>> idPairIter = idPairs.iterator();
-					List<Object2IntMap.Entry<Identifier>> currentBulk = new ArrayList<>();
-					Object2IntMap.Entry<Identifier> currentPair = idPairIter.next();
-					currentBulk.add(currentPair);
+		int lastBulkLastRawId = 0;
+		int groupStart = 0;
 
-					while (idPairIter.hasNext()) {
-						currentPair = idPairIter.next();
+		while (groupStart < size) {
+			int group = groups[order[groupStart]];
+			int groupEnd = groupStart + 1;
+			// Group consecutive raw ids together.
+			int bulkCount = 1;
 
-						if (currentBulk.get(currentBulk.size() - 1).getIntValue() + 1 != currentPair.getIntValue()) {
-							bulks.add(currentBulk);
-							currentBulk = new ArrayList<>();
-						}
+			while (groupEnd < size && groups[order[groupEnd]] == group) {
+				if (rawIds[order[groupEnd - 1]] + 1 != rawIds[order[groupEnd]]) {
+					bulkCount++;
+				}
 
-						currentBulk.add(currentPair);
-					}
+				groupEnd++;
+			}
 
-					bulks.add(currentBulk);
+			buf.writeString(optimizeNamespace(groupNamespaces.get(group)));
+			buf.writeVarInt(bulkCount);
 
-					buf.writeString(optimizeNamespace(idNamespaceEntry.getKey()));
-					buf.writeVarInt(bulks.size());
+			int bulkStart = groupStart;
 
-					for (List<Object2IntMap.Entry<Identifier>> bulk : bulks) {
-						int firstRawId = bulk.get(0).getIntValue();
-						int bulkRawIdStartDiff = firstRawId - lastBulkLastRawId;
+			while (bulkStart < groupEnd) {
+				int bulkEnd = bulkStart + 1;
 
-						buf.writeVarInt(bulkRawIdStartDiff);
-						buf.writeVarInt(bulk.size());
+				while (bulkEnd < groupEnd && rawIds[order[bulkEnd - 1]] + 1 == rawIds[order[bulkEnd]]) {
+					bulkEnd++;
+				}
 
-						for (Object2IntMap.Entry<Identifier> idPair : bulk) {
-							buf.writeString(idPair.getKey().getPath());
+				buf.writeVarInt(rawIds[order[bulkStart]] - lastBulkLastRawId);
+				buf.writeVarInt(bulkEnd - bulkStart);
 
-							lastBulkLastRawId = idPair.getIntValue();
-						}
-					}
+				for (int j = bulkStart; j < bulkEnd; j++) {
+					buf.writeString(ids[order[j]].getPath());
 				}
-			}
-		});
 
-		// Split the packet to multiple MAX_PAYLOAD_SIZEd buffers.
-		int readableBytes = buf.readableBytes();
-		int sliceIndex = 0;
+				lastBulkLastRawId = rawIds[order[bulkEnd - 1]];
+				bulkStart = bulkEnd;
+			}
 
-		while (sliceIndex < readableBytes) {
-			int sliceSize = Math.min(readableBytes - sliceIndex, MAX_PAYLOAD_SIZE);
-			PacketByteBuf slicedBuf = PacketByteBufs.slice(buf, sliceIndex, sliceSize);
-			sender.accept(createPayload(slicedBuf));
-			sliceIndex += sliceSize;
+			groupStart = groupEnd;
 		}
-
-		// Send an empty buffer to mark the end of the split.
-		sender.accept(createPayload(PacketByteBufs.empty()));
 	}
 
 	@Override
@@ -180,33 +260,42 @@ public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectReg
 		isPacketFinished = true;
 
 		computeBufSize(combinedBuf);
-		syncedRegistryMap = new LinkedHashMap<>();
-		int regNamespaceGroupAmount = combinedBuf.readVarInt();
+		syncedRegistryMap = readRegistryMap(combinedBuf);
+		combinedBuf.release();
+		combinedBuf = null;
+	}
+
+	/**
+	 * Reads a registry map written by {@link #writeRegistryMap}.
+	 */
+	public static Map<Identifier, Object2IntMap<Identifier>> readRegistryMap(PacketByteBuf buf) {
+		Map<Identifier, Object2IntMap<Identifier>> registryMap = new LinkedHashMap<>();
+		int regNamespaceGroupAmount = buf.readVarInt();
 
 		for (int i = 0; i < regNamespaceGroupAmount; i++) {
-			String regNamespace = unoptimizeNamespace(combinedBuf.readString());
-			int regNamespaceGroupLength = combinedBuf.readVarInt();
+			String regNamespace = unoptimizeNamespace(buf.readString());
+			int regNamespaceGroupLength = buf.readVarInt();
 
 			for (int j = 0; j < regNamespaceGroupLength; j++) {
-				String regPath = combinedBuf.readString();
+				String regPath = buf.readString();
 				Object2IntMap<Identifier> idMap = new Object2IntLinkedOpenHashMap<>();
-				int idNamespaceGroupAmount = combinedBuf.readVarInt();
+				int idNamespaceGroupAmount = buf.readVarInt();
 
 				int lastBulkLastRawId = 0;
 
 				for (int k = 0; k < idNamespaceGroupAmount; k++) {
-					String idNamespace = unoptimizeNamespace(combinedBuf.readString());
-					int rawIdBulkAmount = combinedBuf.readVarInt();
+					String idNamespace = unoptimizeNamespace(buf.readString());
+					int rawIdBulkAmount = buf.readVarInt();
 
 					for (int l = 0; l < rawIdBulkAmount; l++) {
-						int bulkRawIdStartDiff = combinedBuf.readVarInt();
-						int bulkSize = combinedBuf.readVarInt();
+						int bulkRawIdStartDiff = buf.readVarInt();
+						int bulkSize = buf.readVarInt();
 
 						int currentRawId = (lastBulkLastRawId + bulkRawIdStartDiff) - 1;
 
 						for (int m = 0; m < bulkSize; m++) {
 							currentRawId++;
-							String idPath = combinedBuf.readString();
+							String idPath = buf.readString();
 							idMap.put(Identifier.of(idNamespace, idPath), currentRawId);
 						}
 
@@ -214,12 +303,11 @@ public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectReg
 					}
 				}
 
-				syncedRegistryMap.put(Identifier.of(regNamespace, regPath), idMap);
+				registryMap.put(Identifier.of(regNamespace, regPath), idMap);
 			}
 		}
 
-		combinedBuf.release();
-		combinedBuf = null;
+		return registryMap;
 	}
 
 	@Override
@@ -244,14 +332,6 @@ public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectReg
 		return map;
 	}
 
-	private DirectRegistryPacketHandler.Payload createPayload(PacketByteBuf buf) {
-		if (buf.readableBytes() == 0) {
-			return new Payload(new byte[0]);
-		}
-
-		return new Payload(buf.array());
-	}
-
 	private static String optimizeNamespace(String namespace) {
 		return namespace.equals(Identifier.DEFAULT_NAMESPACE) ? "" : namespace;
 	}
@@ -260,6 +340,9 @@ public class DirectRegistryPacketHandler extends RegistryPacketHandler<DirectReg
 		return namespace.isEmpty() ? Identifier.DEFAULT_NAMESPACE : namespace;
 	}
 
+	private record EncodedRegistryMap(Map<Identifier, Object2IntMap<Identifier>> registryMap, List<Payload> payloads) {
+	}
+
 	public record Payload(byte[] data) implements RegistrySyncPayload {
 		public static CustomPayload.Id<Payload> ID = new Id<>(Identifier.of("fabric", "registry/sync/direct"));
 		public static PacketCodec<PacketByteBuf, Payload> CODEC = CustomPayload.codecOf(Payload::write, Payload::new);
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.registry.sync;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.ByteArrayOutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+
+import com.google.common.hash.HashCode;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.impl.registry.sync.packet.CachedRegistrySync;
+
+public class CachedRegistrySyncTest {
+	@Test
+	void compressedRoundTrip() throws DataFormatException {
+		Map<Identifier, Object2IntMap<Identifier>> registries = createRegistries();
+
+		List<CachedRegistrySync.CompressedPayload> payloads = CachedRegistrySync.getPayloads(registries, registries.keySet());
+		// Last payload is empty, indicating all the data has been sent.
+		assertEquals(0, payloads.get(payloads.size() - 1).data().length);
+
+		assertEquals(registries, CachedRegistrySync.decompress(concat(payloads)));
+		// The payloads for the full map are reused.
+		assertSame(payloads, CachedRegistrySync.getPayloads(registries, registries.keySet()));
+	}
+
+	@Test
+	void requestedRegistriesOnly() throws DataFormatException {
+		Map<Identifier, Object2IntMap<Identifier>> registries = createRegistries();
+		Identifier requested = Identifier.of("test", "registry_1");
+
+		List<CachedRegistrySync.CompressedPayload> payloads = CachedRegistrySync.getPayloads(registries, List.of(requested, Identifier.of("test", "unknown")));
+
+		assertEquals(Map.of(requested, registries.get(requested)), CachedRegistrySync.decompress(concat(payloads)));
+	}
+
+	@Test
+	void decodedRegistriesKeepTheirHash() throws DataFormatException {
+		Map<Identifier, Object2IntMap<Identifier>> registries = createRegistries();
+		Map<Identifier, HashCode> hashes = CachedRegistrySync.getHashes(registries);
+		Map<Identifier, Object2IntMap<Identifier>> decoded = CachedRegistrySync.decompress(concat(CachedRegistrySync.getPayloads(registries, registries.keySet())));
+
+		for (Map.Entry<Identifier, Object2IntMap<Identifier>> entry : decoded.entrySet()) {
+			// The client re-encodes the registries it receives to cache them, which must produce the hash sent by the server.
+			HashCode hash = CachedRegistrySync.hash(CachedRegistrySync.encodeRegistry(entry.getKey(), entry.getValue()));
+			assertEquals(hashes.get(entry.getKey()), hash);
+		}
+	}
+
+	private static Map<Identifier, Object2IntMap<Identifier>> createRegistries() {
+		Map<Identifier, Object2IntMap<Identifier>> registries = new LinkedHashMap<>();
+
+		for (int r = 0; r < 3; r++) {
+			Object2IntMap<Identifier> entries = new Object2IntOpenHashMap<>();
+
+			for (int i = 0; i < 500; i++) {
+				entries.put(Identifier.of("mod_" + (i % 5), "entry_" + i), i + i / 20);
+			}
+
+			registries.put(Identifier.of("test", "registry_" + r), entries);
+		}
+
+		return registries;
+	}
+
+	private static byte[] concat(List<CachedRegistrySync.CompressedPayload> payloads) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		for (CachedRegistrySync.CompressedPayload payload : payloads) {
+			out.writeBytes(payload.data());
+		}
+
+		return out.toByteArray();
+	}
+}
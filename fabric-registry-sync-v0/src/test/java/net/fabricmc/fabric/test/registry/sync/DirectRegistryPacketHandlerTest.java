@@ -16,7 +16,10 @@
 
 package net.fabricmc.fabric.test.registry.sync;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -96,6 +99,54 @@ public class DirectRegistryPacketHandlerTest {
 		assertMatchesDeep(registry, handler.getSyncedRegistryMap());
 	}
 
+	@Test
+	void mixedNamespaceRegistrySync() {
+		DirectRegistryPacketHandler handler = new DirectRegistryPacketHandler();
+		Map<Identifier, Object2IntMap<Identifier>> registry = new HashMap<>();
+		Object2IntMap<Identifier> entries = new Object2IntOpenHashMap<>();
+
+		// Interleave namespaces and leave gaps in the raw ids to produce several bulks per namespace.
+		for (int i = 0; i < 1000; i++) {
+			entries.put(Identifier.of("mod_" + (i % 7), "entry_" + i), i + i / 10);
+		}
+
+		registry.put(Identifier.of("test", "mixed"), entries);
+		registry.put(Identifier.of("other", "empty"), new Object2IntOpenHashMap<>());
+
+		var payloads = new ArrayList<DirectRegistryPacketHandler.Payload>();
+		handler.sendPacket(payloads::add, registry);
+
+		for (DirectRegistryPacketHandler.Payload payload : payloads) {
+			handler.receivePayload(payload);
+		}
+
+		assertMatchesDeep(registry, handler.getSyncedRegistryMap());
+	}
+
+	@Test
+	void encodedPayloadsAreReused() {
+		DirectRegistryPacketHandler handler = new DirectRegistryPacketHandler();
+		Map<Identifier, Object2IntMap<Identifier>> registry = new HashMap<>();
+		registry.put(Identifier.of("test"), createRegistry(150));
+
+		var first = new ArrayList<DirectRegistryPacketHandler.Payload>();
+		var second = new ArrayList<DirectRegistryPacketHandler.Payload>();
+		handler.sendPacket(first::add, registry);
+		handler.sendPacket(second::add, registry);
+
+		assertEquals(first.size(), second.size());
+
+		for (int i = 0; i < first.size(); i++) {
+			assertSame(first.get(i), second.get(i));
+		}
+
+		// A different map instance is encoded again.
+		var third = new ArrayList<DirectRegistryPacketHandler.Payload>();
+		handler.sendPacket(third::add, new HashMap<>(registry));
+		assertNotSame(first.get(0), third.get(0));
+		assertArrayEquals(first.get(0).data(), third.get(0).data());
+	}
+
 	private static Object2IntMap<Identifier> createRegistry(int size) {
 		Object2IntMap<Identifier> entries = new Object2IntOpenHashMap<>();
 
@@ -54,6 +54,22 @@ public interface FabricBakedModel {
 		return true;
 	}
 
+	/**
+	 * When true, signals the renderer that {@link #emitBlockQuads} always emits the same quads
+	 * for a given block state. Renderers may then cache the quads emitted for each block state
+	 * during chunk rebuilds and reuse them instead of calling {@link #emitBlockQuads} again.
+	 * Face culling, colors and lighting are still applied to the reused quads.
+	 *
+	 * <p>Models that return true must not use the world, the block position or the random supplier
+	 * passed to {@link #emitBlockQuads}, and must not skip quads based on
+	 * {@link RenderContext#isFaceCulled(net.minecraft.util.math.Direction)}.
+	 *
+	 * <p>The default implementation returns false, because vanilla models use the random supplier.
+	 */
+	default boolean hasStaticBlockQuads() {
+		return false;
+	}
+
 	/**
 	 * This method will be called during chunk rebuilds to generate both the static and
 	 * dynamic portions of a block model when the model implements this interface and
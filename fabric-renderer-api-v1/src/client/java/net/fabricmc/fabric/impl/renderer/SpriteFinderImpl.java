@@ -19,6 +19,7 @@ package net.fabricmc.fabric.impl.renderer;
 import java.util.Map;
 import java.util.function.Consumer;
 
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -32,24 +33,99 @@ import net.fabricmc.fabric.api.renderer.v1.model.SpriteFinder;
 
 /**
  * Indexes an atlas sprite to allow fast lookup of Sprites from
- * baked vertex coordinates.  Implementation is a straightforward
- * quad tree. Other options that were considered were linear search
- * (slow) and direct indexing of fixed-size cells. Direct indexing
- * would be fastest but would be memory-intensive for large atlases
- * and unsuitable for any atlas that isn't consistently aligned to
- * a fixed cell size.
+ * baked vertex coordinates.  Implementation is a flat grid of cells
+ * sized to the smallest sprite of the atlas, backed by a straightforward
+ * quad tree. Each cell that is entirely covered by a single sprite
+ * stores that sprite, so most lookups are a single array access.
+ * Cells on the border of sprites or in unused parts of the atlas
+ * are left empty and resolved with the quad tree. The grid is capped
+ * to {@link #MAX_GRID_SIZE} cells per axis to bound its memory use
+ * for large atlases with tiny sprites; the quad tree handles the rest.
  */
 public class SpriteFinderImpl implements SpriteFinder {
 	private static final Logger LOGGER = LoggerFactory.getLogger(SpriteFinderImpl.class);
 
+	private static final int MAX_GRID_SIZE = 1024;
+
 	private final Node root;
 	private final SpriteAtlasTexture spriteAtlasTexture;
 	private int badSpriteCount = 0;
+	private final int gridWidth;
+	private final int gridHeight;
+	private final Sprite[] grid;
 
 	public SpriteFinderImpl(Map<Identifier, Sprite> sprites, SpriteAtlasTexture spriteAtlasTexture) {
 		root = new Node(0.5f, 0.5f, 0.25f);
 		this.spriteAtlasTexture = spriteAtlasTexture;
 		sprites.values().forEach(root::add);
+
+		float minWidth = 1;
+		float minHeight = 1;
+
+		for (Sprite sprite : sprites.values()) {
+			if (hasValidBounds(sprite)) {
+				minWidth = Math.min(minWidth, sprite.getMaxU() - sprite.getMinU());
+				minHeight = Math.min(minHeight, sprite.getMaxV() - sprite.getMinV());
+			}
+		}
+
+		gridWidth = getGridSize(minWidth);
+		gridHeight = getGridSize(minHeight);
+		grid = new Sprite[gridWidth * gridHeight];
+		// Cells overlapped by more than one sprite, which must be left to the quad tree.
+		boolean[] shared = new boolean[grid.length];
+
+		for (Sprite sprite : sprites.values()) {
+			if (hasValidBounds(sprite)) {
+				addToGrid(sprite, shared);
+			}
+		}
+	}
+
+	private static int getGridSize(float minSpriteSize) {
+		if (!(minSpriteSize > 0)) {
+			return 1;
+		}
+
+		return Math.max(1, Math.min(MAX_GRID_SIZE, (int) Math.ceil(1 / minSpriteSize)));
+	}
+
+	private static boolean hasValidBounds(Sprite sprite) {
+		return sprite.getMinU() >= 0 - Node.EPS && sprite.getMaxU() <= 1 + Node.EPS && sprite.getMinV() >= 0 - Node.EPS && sprite.getMaxV() <= 1 + Node.EPS;
+	}
+
+	private void addToGrid(Sprite sprite, boolean[] shared) {
+		final int minX = Math.max(0, (int) ((double) sprite.getMinU() * gridWidth));
+		// The upper bounds are exclusive, so that a sprite ending on a cell boundary doesn't touch the next cell.
+		final int maxX = Math.min(gridWidth - 1, (int) Math.ceil((double) sprite.getMaxU() * gridWidth) - 1);
+		final int minY = Math.max(0, (int) ((double) sprite.getMinV() * gridHeight));
+		final int maxY = Math.min(gridHeight - 1, (int) Math.ceil((double) sprite.getMaxV() * gridHeight) - 1);
+
+		for (int y = minY; y <= maxY; y++) {
+			// Compare in double precision, the same way find computes the cell of a coordinate,
+			// so that a cell is only assigned when every coordinate mapped to it is inside the sprite.
+			final boolean coversV = sprite.getMinV() <= (double) y / gridHeight && (double) (y + 1) / gridHeight <= sprite.getMaxV();
+
+			for (int x = minX; x <= maxX; x++) {
+				final int index = y * gridWidth + x;
+				final boolean covers = coversV && sprite.getMinU() <= (double) x / gridWidth && (double) (x + 1) / gridWidth <= sprite.getMaxU();
+
+				if (shared[index]) {
+					continue;
+				}
+
+				if (covers && grid[index] == null) {
+					grid[index] = sprite;
+				} else {
+					// Partially covered or overlapping cell: let the quad tree decide.
+					grid[index] = null;
+				}
+
+				// A partially covered cell may also contain another sprite, and a second sprite touching
+				// a cell that is already assigned means it's not entirely covered by the first one.
+				shared[index] = !covers || grid[index] == null;
+			}
+		}
 	}
 
 	@Override
@@ -67,6 +143,31 @@ public class SpriteFinderImpl implements SpriteFinder {
 
 	@Override
 	public Sprite find(float u, float v) {
+		final Sprite sprite = findInGrid(u, v);
+		return sprite != null ? sprite : root.find(u, v);
+	}
+
+	/**
+	 * Finds the sprite at the given coordinates using only the grid,
+	 * or returns {@code null} if the cell of the coordinates isn't entirely covered by a single sprite.
+	 */
+	@Nullable
+	public Sprite findInGrid(float u, float v) {
+		final int x = (int) ((double) u * gridWidth);
+		final int y = (int) ((double) v * gridHeight);
+
+		if (x >= 0 && x < gridWidth && y >= 0 && y < gridHeight && u >= 0 && v >= 0) {
+			return grid[y * gridWidth + x];
+		}
+
+		return null;
+	}
+
+	/**
+	 * Finds the sprite at the given coordinates using only the quad tree, bypassing the grid.
+	 * Lookups through {@link #find(float, float)} must always return the same sprite.
+	 */
+	public Sprite findInQuadTree(float u, float v) {
 		return root.find(u, v);
 	}
 
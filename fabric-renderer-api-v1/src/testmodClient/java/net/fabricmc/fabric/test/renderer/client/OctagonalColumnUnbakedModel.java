@@ -81,6 +81,8 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		MeshBuilder builder = renderer.meshBuilder();
 		QuadEmitter emitter = builder.getEmitter();
 
+		// The up and down faces are tinted with the grass color of the biome, see RendererClientTest.
+
 		// up
 
 		emitter.pos(0, A, 1, 0);
@@ -90,6 +92,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.UP);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		emitter.pos(0, 0, 1, A);
@@ -99,6 +102,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.UP);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		emitter.pos(0, 0, 1, B);
@@ -108,6 +112,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.UP);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		emitter.pos(0, 0.5f, 1, 0.5f);
@@ -117,6 +122,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.UP);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		// down
@@ -128,6 +134,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.DOWN);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		emitter.pos(0, 0, 0, B);
@@ -137,6 +144,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.DOWN);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		emitter.pos(0, 0, 0, A);
@@ -146,6 +154,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.DOWN);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		emitter.pos(0, 0.5f, 0, 0.5f);
@@ -155,6 +164,7 @@ public class OctagonalColumnUnbakedModel implements UnbakedModel {
 		emitter.cullFace(Direction.DOWN);
 		emitter.spriteBake(whiteConcreteSprite, MutableQuadView.BAKE_LOCK_UV);
 		emitter.color(-1, -1, -1, -1);
+		emitter.colorIndex(0);
 		emitter.emit();
 
 		// north
@@ -16,11 +16,13 @@
 
 package net.fabricmc.fabric.test.renderer.client;
 
+import net.minecraft.client.color.world.BiomeColors;
 import net.minecraft.client.render.RenderLayer;
 
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.blockrenderlayer.v1.BlockRenderLayerMap;
 import net.fabricmc.fabric.api.client.model.loading.v1.ModelLoadingPlugin;
+import net.fabricmc.fabric.api.client.rendering.v1.ColorProviderRegistry;
 import net.fabricmc.fabric.test.renderer.FrameBlock;
 import net.fabricmc.fabric.test.renderer.Registration;
 
@@ -36,5 +38,14 @@ public final class RendererClientTest implements ClientModInitializer {
 			// so it will use the default material, i.e. the one from BlockRenderLayerMap.
 			BlockRenderLayerMap.INSTANCE.putBlock(frameBlock, RenderLayer.getCutoutMipped());
 		}
+
+		// The octagonal column has static quads, so its tint must still follow the biome after they are cached.
+		ColorProviderRegistry.BLOCK.register((state, world, pos, tintIndex) -> {
+			if (world != null && pos != null) {
+				return BiomeColors.getGrassColor(world, pos);
+			}
+
+			return -1;
+		}, Registration.OCTAGONAL_COLUMN_BLOCK);
 	}
 }
@@ -52,6 +52,12 @@ public class SingleMeshBakedModel implements BakedModel {
 		return false;
 	}
 
+	@Override
+	public boolean hasStaticBlockQuads() {
+		// The mesh doesn't depend on the world, so the renderer can cache it. Culling, tint and lighting still apply.
+		return true;
+	}
+
 	@Override
 	public void emitBlockQuads(BlockRenderView blockView, BlockState state, BlockPos pos, Supplier<Random> randomSupplier, RenderContext context) {
 		mesh.outputTo(context.getEmitter());
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.renderer.client;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.minecraft.client.texture.NativeImage;
+import net.minecraft.client.texture.Sprite;
+import net.minecraft.client.texture.SpriteContents;
+import net.minecraft.client.texture.SpriteDimensions;
+import net.minecraft.resource.metadata.ResourceMetadata;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.api.ClientModInitializer;
+import net.fabricmc.fabric.impl.renderer.SpriteFinderImpl;
+
+/**
+ * Tests that the grid of {@link SpriteFinderImpl} finds the same sprites as its quad tree, and that most lookups
+ * are resolved by the grid. Both synthetic atlases mix sprite sizes. The first one has a size that is not
+ * a power of two, so that cell boundaries don't line up with sprite boundaries, and the second one is
+ * tightly packed like vanilla atlases, so that every cell is covered by a single sprite.
+ */
+public class SpriteFinderTest implements ClientModInitializer {
+	private static final Identifier ATLAS_ID = Identifier.of("fabric-renderer-api-v1-testmod", "textures/atlas/sprite_finder_test.png");
+
+	@Override
+	public void onInitializeClient() {
+		// Float rounding of the sprite bounds leaves some cells to the quad tree in the first atlas.
+		testAtlas(48, 80, 0.5);
+		testAtlas(64, 64, 1);
+	}
+
+	private static void testAtlas(int atlasWidth, int atlasHeight, double minGridHitRate) {
+		List<SpriteContents> contents = new ArrayList<>();
+		Map<Identifier, Sprite> sprites = new LinkedHashMap<>();
+		// Sprite containing each texel of the atlas, indexed by y * atlasWidth + x.
+		Sprite[] expected = new Sprite[atlasWidth * atlasHeight];
+
+		// Two rows of 16x16 sprites, two rows of 8x8 sprites and one large sprite filling the rest.
+		for (int y = 0; y < 32; y += 16) {
+			for (int x = 0; x < atlasWidth; x += 16) {
+				addSprite(contents, sprites, expected, atlasWidth, atlasHeight, x, y, 16, 16);
+			}
+		}
+
+		for (int y = 32; y < 48; y += 8) {
+			for (int x = 0; x < atlasWidth; x += 8) {
+				addSprite(contents, sprites, expected, atlasWidth, atlasHeight, x, y, 8, 8);
+			}
+		}
+
+		addSprite(contents, sprites, expected, atlasWidth, atlasHeight, 0, 48, atlasWidth, atlasHeight - 48);
+
+		try {
+			// Every texel is covered, so the missing sprite of the atlas is never needed.
+			SpriteFinderImpl finder = new SpriteFinderImpl(sprites, null);
+			int gridHits = 0;
+
+			for (int y = 0; y < atlasHeight; y++) {
+				for (int x = 0; x < atlasWidth; x++) {
+					// Sample the center of the texel, which is away from sprite edges like the center of a quad.
+					float u = (x + 0.5f) / atlasWidth;
+					float v = (y + 0.5f) / atlasHeight;
+					Sprite sprite = expected[y * atlasWidth + x];
+					Sprite gridSprite = finder.findInGrid(u, v);
+
+					if (gridSprite != null) {
+						gridHits++;
+
+						if (gridSprite != sprite) {
+							throw new AssertionError("Grid lookup of texel " + x + ", " + y + " returned the wrong sprite");
+						}
+					}
+
+					if (finder.findInQuadTree(u, v) != sprite) {
+						throw new AssertionError("Quad tree lookup of texel " + x + ", " + y + " returned the wrong sprite");
+					}
+
+					if (finder.find(u, v) != sprite) {
+						throw new AssertionError("Lookup of texel " + x + ", " + y + " returned the wrong sprite");
+					}
+				}
+			}
+
+			double gridHitRate = (double) gridHits / (atlasWidth * atlasHeight);
+
+			if (gridHitRate < minGridHitRate) {
+				throw new AssertionError("Only " + gridHitRate + " of the lookups in a " + atlasWidth + "x" + atlasHeight + " atlas were resolved by the grid, expected at least " + minGridHitRate);
+			}
+		} finally {
+			contents.forEach(SpriteContents::close);
+		}
+	}
+
+	private static void addSprite(List<SpriteContents> contents, Map<Identifier, Sprite> sprites, Sprite[] expected, int atlasWidth, int atlasHeight, int x, int y, int width, int height) {
+		Identifier id = Identifier.of("fabric-renderer-api-v1-testmod", "sprite_finder_" + sprites.size());
+		SpriteContents spriteContents = new SpriteContents(id, new SpriteDimensions(width, height), new NativeImage(width, height, false), ResourceMetadata.NONE);
+		// The constructor of Sprite is protected.
+		Sprite sprite = new Sprite(ATLAS_ID, spriteContents, atlasWidth, atlasHeight, x, y) { };
+		contents.add(spriteContents);
+		sprites.put(id, sprite);
+
+		for (int texelY = y; texelY < y + height; texelY++) {
+			for (int texelX = x; texelX < x + width; texelX++) {
+				expected[texelY * atlasWidth + texelX] = sprite;
+			}
+		}
+	}
+}
@@ -31,6 +31,7 @@ import net.fabricmc.fabric.api.renderer.v1.RendererAccess;
 import net.fabricmc.fabric.api.util.TriState;
 import net.fabricmc.fabric.impl.client.indigo.renderer.IndigoRenderer;
 import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoConfig;
+import net.fabricmc.fabric.impl.client.indigo.renderer.render.ModelProfiler;
 import net.fabricmc.loader.api.FabricLoader;
 
 public class Indigo implements ClientModInitializer {
@@ -48,6 +49,10 @@ public class Indigo implements ClientModInitializer {
 	public static final boolean FIX_EMISSIVE_LIGHTING;
 	public static final boolean FIX_EXTERIOR_VERTEX_LIGHTING;
 	public static final boolean FIX_LUMINOUS_AO_SHADE;
+	/** Records the cost of each model during chunk rebuilds, see {@link ModelProfiler}. */
+	public static final boolean PROFILE_MODELS;
+	/** Set true in dev env to confirm that cached static quads render like the model they were captured from. */
+	public static final boolean DEBUG_COMPARE_STATIC_QUADS;
 
 	public static final Logger LOGGER = LoggerFactory.getLogger(Indigo.class);
 
@@ -125,6 +130,8 @@ public class Indigo implements ClientModInitializer {
 		FIX_EMISSIVE_LIGHTING = FIX_MEAN_LIGHT_CALCULATION;
 		FIX_EXTERIOR_VERTEX_LIGHTING = asBoolean((String) properties.computeIfAbsent("fix-exterior-vertex-lighting", (a) -> "auto"), true);
 		FIX_LUMINOUS_AO_SHADE = asBoolean((String) properties.computeIfAbsent("fix-luminous-block-ambient-occlusion", (a) -> "auto"), false);
+		PROFILE_MODELS = asBoolean((String) properties.computeIfAbsent("debug-profile-models", (a) -> "auto"), false);
+		DEBUG_COMPARE_STATIC_QUADS = asBoolean((String) properties.computeIfAbsent("debug-compare-static-quads", (a) -> "auto"), false);
 
 		try (FileOutputStream stream = new FileOutputStream(configFile)) {
 			properties.store(stream, "Indigo properties file");
@@ -143,6 +150,15 @@ public class Indigo implements ClientModInitializer {
 			}
 
 			RendererAccess.INSTANCE.registerRenderer(IndigoRenderer.INSTANCE);
+
+			if (PROFILE_MODELS) {
+				LOGGER.info("[Indigo] Model profiling enabled.");
+
+				// The command API is optional, the statistics are still shown on the debug HUD without it.
+				if (FabricLoader.getInstance().isModLoaded("fabric-command-api-v2")) {
+					ModelProfileCommand.init();
+				}
+			}
 		} else {
 			LOGGER.info("[Indigo] Different rendering plugin detected; not applying Indigo.");
 		}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.client.indigo;
+
+import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.argument;
+import static net.fabricmc.fabric.api.client.command.v2.ClientCommandManager.literal;
+
+import java.util.List;
+import java.util.Locale;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.command.CommandRegistryAccess;
+import net.minecraft.text.Text;
+
+import net.fabricmc.fabric.api.client.command.v2.ClientCommandRegistrationCallback;
+import net.fabricmc.fabric.api.client.command.v2.FabricClientCommandSource;
+import net.fabricmc.fabric.impl.client.indigo.renderer.render.ModelProfiler;
+
+/**
+ * Client command {@code /indigo profile models|blocks [count]} that dumps the most expensive models or blocks,
+ * and {@code /indigo profile reset} that clears the statistics. Only registered when {@link Indigo#PROFILE_MODELS} is enabled
+ * and the optional client command API is loaded.
+ */
+final class ModelProfileCommand {
+	private static final int DEFAULT_COUNT = 10;
+
+	private ModelProfileCommand() {
+	}
+
+	static void init() {
+		ClientCommandRegistrationCallback.EVENT.register(ModelProfileCommand::register);
+	}
+
+	private static void register(CommandDispatcher<FabricClientCommandSource> dispatcher, CommandRegistryAccess registryAccess) {
+		dispatcher.register(literal("indigo")
+				.then(literal("profile")
+						.then(literal("models")
+								.executes(context -> dump(context, "models", ModelProfiler.getModelStats(), DEFAULT_COUNT))
+								.then(argument("count", IntegerArgumentType.integer(1))
+										.executes(context -> dump(context, "models", ModelProfiler.getModelStats(), IntegerArgumentType.getInteger(context, "count")))))
+						.then(literal("blocks")
+								.executes(context -> dump(context, "blocks", ModelProfiler.getBlockStats(), DEFAULT_COUNT))
+								.then(argument("count", IntegerArgumentType.integer(1))
+										.executes(context -> dump(context, "blocks", ModelProfiler.getBlockStats(), IntegerArgumentType.getInteger(context, "count")))))
+						.then(literal("reset")
+								.executes(ModelProfileCommand::reset))));
+	}
+
+	private static int dump(CommandContext<FabricClientCommandSource> context, String kind, List<ModelProfiler.Entry> stats, int count) {
+		FabricClientCommandSource source = context.getSource();
+		source.sendFeedback(Text.literal("Top %d of %d %s by total time over %d chunk builder threads:".formatted(Math.min(count, stats.size()), stats.size(), kind, ModelProfiler.getThreadCount())));
+
+		for (int i = 0; i < count && i < stats.size(); ++i) {
+			ModelProfiler.Entry entry = stats.get(i);
+			String line = String.format(Locale.ROOT, "%d. %s: %d blocks, %.3f ms total, %.2f us/block, %d quads, %d transformed",
+					i + 1,
+					entry.name(),
+					entry.calls(),
+					entry.nanos() / 1e6,
+					entry.calls() == 0 ? 0 : entry.nanos() / 1e3 / entry.calls(),
+					entry.quads(),
+					entry.transformedQuads());
+			source.sendFeedback(Text.literal(line));
+			Indigo.LOGGER.info("[Indigo] {}", line);
+		}
+
+		return stats.size();
+	}
+
+	private static int reset(CommandContext<FabricClientCommandSource> context) {
+		ModelProfiler.reset();
+		context.getSource().sendFeedback(Text.literal("Reset model statistics."));
+		return 1;
+	}
+}
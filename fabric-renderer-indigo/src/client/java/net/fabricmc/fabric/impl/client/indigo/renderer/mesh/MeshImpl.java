@@ -16,6 +16,7 @@
 
 package net.fabricmc.fabric.impl.client.indigo.renderer.mesh;
 
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
@@ -59,6 +60,13 @@ public class MeshImpl implements Mesh {
 		}
 	}
 
+	/**
+	 * Whether both meshes hold the same quads in the same order.
+	 */
+	public boolean hasSameQuads(MeshImpl other) {
+		return Arrays.equals(data, other.data);
+	}
+
 	@Override
 	public void outputTo(QuadEmitter emitter) {
 		MutableQuadViewImpl e = (MutableQuadViewImpl) emitter;
@@ -41,6 +41,7 @@ import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoCalculator;
 import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoConfig;
 import net.fabricmc.fabric.impl.client.indigo.renderer.helper.ColorHelper;
 import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.EncodingFormat;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MeshBuilderImpl;
 import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MutableQuadViewImpl;
 import net.fabricmc.fabric.impl.renderer.VanillaModelEncoder;
 
@@ -64,6 +65,18 @@ public abstract class AbstractBlockRenderContext extends AbstractRenderContext {
 
 	private final BlockPos.Mutable lightPos = new BlockPos.Mutable();
 
+	/** Receives a copy of each transformed quad while the quads of a static model are being captured. */
+	@Nullable
+	protected MeshBuilderImpl captureBuilder;
+	/** Receives each colored and shaded quad instead of the vertex consumer while {@link Indigo#DEBUG_COMPARE_STATIC_QUADS} checks cached quads. */
+	@Nullable
+	protected MeshBuilderImpl outputCaptureBuilder;
+
+	/** Quads emitted since the last reset, only counted when {@link Indigo#PROFILE_MODELS} is enabled. */
+	protected int emittedQuads;
+	/** Emitted quads that went through a quad transform, only counted when {@link Indigo#PROFILE_MODELS} is enabled. */
+	protected int transformedQuads;
+
 	protected AbstractBlockRenderContext() {
 		aoCalc = createAoCalc(blockInfo);
 	}
@@ -94,10 +107,23 @@ public abstract class AbstractBlockRenderContext extends AbstractRenderContext {
 	}
 
 	private void renderQuad(MutableQuadViewImpl quad) {
+		if (Indigo.PROFILE_MODELS) {
+			emittedQuads++;
+
+			if (hasTransform()) {
+				transformedQuads++;
+			}
+		}
+
 		if (!transform(quad)) {
 			return;
 		}
 
+		if (captureBuilder != null) {
+			// Captured before culling, which depends on the neighbors of the block.
+			captureBuilder.getEmitter().copyFrom(quad).emit();
+		}
+
 		if (isFaceCulled(quad.cullFace())) {
 			return;
 		}
@@ -108,11 +134,16 @@ public abstract class AbstractBlockRenderContext extends AbstractRenderContext {
 		final boolean ao = blockInfo.useAo && (aoMode == TriState.TRUE || (aoMode == TriState.DEFAULT && blockInfo.defaultAo));
 		final boolean emissive = mat.emissive();
 		final boolean vanillaShade = mat.shadeMode() == ShadeMode.VANILLA;
-		final VertexConsumer vertexConsumer = getVertexConsumer(blockInfo.effectiveRenderLayer(mat.blendMode()));
 
 		colorizeQuad(quad, colorIndex);
 		shadeQuad(quad, ao, emissive, vanillaShade);
-		bufferQuad(quad, vertexConsumer);
+
+		if (outputCaptureBuilder != null) {
+			outputCaptureBuilder.getEmitter().copyFrom(quad).emit();
+			return;
+		}
+
+		bufferQuad(quad, getVertexConsumer(blockInfo.effectiveRenderLayer(mat.blendMode())));
 	}
 
 	/** handles block color, common to all renders. */
@@ -115,20 +115,15 @@ abstract class AbstractRenderContext implements RenderContext {
 		for (int i = 0; i < 4; i++) {
 			posVec.set(quad.x(i), quad.y(i), quad.z(i), 1.0f);
 			posVec.mul(matrix);
-			vertexConsumer.vertex(posVec.x(), posVec.y(), posVec.z());
-
-			final int color = quad.color(i);
-			vertexConsumer.color((color >>> 16) & 0xFF, (color >>> 8) & 0xFF, color & 0xFF, (color >>> 24) & 0xFF);
-			vertexConsumer.texture(quad.u(i), quad.v(i));
-			vertexConsumer.overlay(overlay);
-			vertexConsumer.light(quad.lightmap(i));
 
 			if (useNormals) {
 				quad.copyNormal(i, normalVec);
 				normalVec.mul(normalMatrix);
 			}
 
-			vertexConsumer.normal(normalVec.x(), normalVec.y(), normalVec.z());
+			// Buffer the whole vertex in a single call. Buffer builders using the block or entity vertex formats,
+			// which is the case for all terrain buffers, write it straight to memory without checking each element.
+			vertexConsumer.vertex(posVec.x(), posVec.y(), posVec.z(), quad.color(i), quad.u(i), quad.v(i), overlay, quad.lightmap(i), normalVec.x(), normalVec.y(), normalVec.z());
 		}
 	}
 }
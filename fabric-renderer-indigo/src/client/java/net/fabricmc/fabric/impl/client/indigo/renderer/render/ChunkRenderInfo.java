@@ -16,6 +16,7 @@
 
 package net.fabricmc.fabric.impl.client.indigo.renderer.render;
 
+import java.util.Arrays;
 import java.util.function.Function;
 
 import it.unimi.dsi.fastutil.longs.Long2FloatOpenHashMap;
@@ -27,6 +28,7 @@ import net.minecraft.client.render.RenderLayer;
 import net.minecraft.client.render.WorldRenderer;
 import net.minecraft.client.render.chunk.ChunkRendererRegion;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.world.BlockRenderView;
 
 import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoCalculator;
@@ -40,18 +42,27 @@ import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoLuminanceFix;
  * be applied together with chunk offsets.
  */
 public class ChunkRenderInfo {
+	/**
+	 * Number of blocks cached along each axis: the 16 blocks of the section and a margin of 2 blocks on each side.
+	 * A margin of 1 is enough for vanilla lookups, the extra block covers models that extend past their block.
+	 */
+	private static final int CACHE_MARGIN = 2;
+	private static final int CACHE_SIZE = 16 + 2 * CACHE_MARGIN;
+	private static final int CACHE_VOLUME = CACHE_SIZE * CACHE_SIZE * CACHE_SIZE;
+
 	/**
 	 * Serves same function as brightness cache in Mojang's AO calculator,
 	 * with some differences as follows...
 	 *
-	 * <ul><li>Mojang uses Object2Int.  This uses Long2Int for performance and to avoid
-	 * creating new immutable BlockPos references.  But will break if someone
-	 * wants to expand Y limit or world borders.  If we want to support that may
+	 * <ul><li>Mojang uses Object2Int.  This uses flat arrays indexed by the position
+	 * relative to the section, to avoid hashing and creating new immutable BlockPos references.
+	 * Positions outside of the cached volume fall back to a Long2Int map, which will break
+	 * if someone wants to expand Y limit or world borders.  If we want to support that may
 	 * need to switch or make configurable.
 	 *
 	 * <li>Mojang overrides the map methods to limit the cache to 50 values.
-	 * However, a render chunk only has 18^3 blocks in it, and the cache is cleared every chunk.
-	 * For performance and simplicity, we just let map grow to the size of the render chunk.
+	 * However, a render chunk only has 18^3 blocks in it, and the cache is reset every chunk.
+	 * For performance and simplicity, we just cache every block of the render chunk.
 	 *
 	 * <li>Mojang only uses the cache for Ao.  Here it is used for all brightness
 	 * lookups, including flat lighting.
@@ -59,28 +70,51 @@ public class ChunkRenderInfo {
 	 * <li>The Mojang cache is a separate threadlocal with a threadlocal boolean to
 	 * enable disable. Cache clearing happens with the disable. There's no use case for
 	 * us when the cache needs to be disabled (and no apparent case in Mojang's code either)
-	 * so we simply clear the cache at the start of each new chunk. It is also
+	 * so we simply reset the cache at the start of each new chunk. It is also
 	 * not a threadlocal because it's held within a threadlocal BlockRenderer.</ul>
+	 *
+	 * <p>Instead of clearing the arrays, each entry is stamped with the generation of the chunk
+	 * it was computed for, and entries with an older stamp are treated as missing.
 	 */
-	private final Long2IntOpenHashMap brightnessCache;
-	private final Long2FloatOpenHashMap aoLevelCache;
+	private final int[] brightnessCache = new int[CACHE_VOLUME];
+	private final int[] brightnessStamps = new int[CACHE_VOLUME];
+	private final float[] aoLevelCache = new float[CACHE_VOLUME];
+	private final int[] aoLevelStamps = new int[CACHE_VOLUME];
+	private final Long2IntOpenHashMap outerBrightnessCache;
+	private final Long2FloatOpenHashMap outerAoLevelCache;
+	/** Generation of the current chunk, never 0 once a chunk is prepared so that the initial stamps are stale. */
+	private int generation = 0;
+	private int minX;
+	private int minY;
+	private int minZ;
 
 	private Function<RenderLayer, BufferBuilder> bufferFunc;
 	BlockRenderView blockView;
 
 	ChunkRenderInfo() {
-		brightnessCache = new Long2IntOpenHashMap();
-		brightnessCache.defaultReturnValue(Integer.MAX_VALUE);
-		aoLevelCache = new Long2FloatOpenHashMap();
-		aoLevelCache.defaultReturnValue(Float.MAX_VALUE);
+		outerBrightnessCache = new Long2IntOpenHashMap();
+		outerBrightnessCache.defaultReturnValue(Integer.MAX_VALUE);
+		outerAoLevelCache = new Long2FloatOpenHashMap();
+		outerAoLevelCache.defaultReturnValue(Float.MAX_VALUE);
 	}
 
-	void prepare(ChunkRendererRegion blockView, Function<RenderLayer, BufferBuilder> bufferFunc) {
+	void prepare(ChunkRendererRegion blockView, ChunkSectionPos sectionPos, Function<RenderLayer, BufferBuilder> bufferFunc) {
 		this.blockView = blockView;
 		this.bufferFunc = bufferFunc;
 
-		brightnessCache.clear();
-		aoLevelCache.clear();
+		minX = sectionPos.getMinX() - CACHE_MARGIN;
+		minY = sectionPos.getMinY() - CACHE_MARGIN;
+		minZ = sectionPos.getMinZ() - CACHE_MARGIN;
+
+		if (++generation == 0) {
+			// Wrapped around: stamps from 2^32 chunks ago would look current again.
+			Arrays.fill(brightnessStamps, 0);
+			Arrays.fill(aoLevelStamps, 0);
+			generation = 1;
+		}
+
+		outerBrightnessCache.clear();
+		outerAoLevelCache.clear();
 	}
 
 	void release() {
@@ -92,31 +126,68 @@ public class ChunkRenderInfo {
 		return bufferFunc.apply(layer);
 	}
 
+	/**
+	 * Returns the index of the position in the cache arrays, or -1 if it's outside of the cached volume.
+	 */
+	private int cacheIndex(BlockPos pos) {
+		final int x = pos.getX() - minX;
+		final int y = pos.getY() - minY;
+		final int z = pos.getZ() - minZ;
+
+		if (x < 0 || x >= CACHE_SIZE || y < 0 || y >= CACHE_SIZE || z < 0 || z >= CACHE_SIZE) {
+			return -1;
+		}
+
+		return (y * CACHE_SIZE + z) * CACHE_SIZE + x;
+	}
+
 	/**
 	 * Cached values for {@link WorldRenderer#getLightmapCoordinates(BlockRenderView, BlockState, BlockPos)}.
 	 * See also the comments for {@link #brightnessCache}.
 	 */
 	int cachedBrightness(BlockPos pos, BlockState state) {
-		long key = pos.asLong();
-		int result = brightnessCache.get(key);
+		final int index = cacheIndex(pos);
 
-		if (result == Integer.MAX_VALUE) {
-			result = AoCalculator.getLightmapCoordinates(blockView, state, pos);
-			brightnessCache.put(key, result);
+		if (index == -1) {
+			long key = pos.asLong();
+			int result = outerBrightnessCache.get(key);
+
+			if (result == Integer.MAX_VALUE) {
+				result = AoCalculator.getLightmapCoordinates(blockView, state, pos);
+				outerBrightnessCache.put(key, result);
+			}
+
+			return result;
 		}
 
-		return result;
+		if (brightnessStamps[index] != generation) {
+			brightnessCache[index] = AoCalculator.getLightmapCoordinates(blockView, state, pos);
+			brightnessStamps[index] = generation;
+		}
+
+		return brightnessCache[index];
 	}
 
 	float cachedAoLevel(BlockPos pos, BlockState state) {
-		long key = pos.asLong();
-		float result = aoLevelCache.get(key);
+		final int index = cacheIndex(pos);
+
+		if (index == -1) {
+			long key = pos.asLong();
+			float result = outerAoLevelCache.get(key);
+
+			if (result == Float.MAX_VALUE) {
+				result = AoLuminanceFix.INSTANCE.apply(blockView, pos, state);
+				outerAoLevelCache.put(key, result);
+			}
+
+			return result;
+		}
 
-		if (result == Float.MAX_VALUE) {
-			result = AoLuminanceFix.INSTANCE.apply(blockView, pos, state);
-			aoLevelCache.put(key, result);
+		if (aoLevelStamps[index] != generation) {
+			aoLevelCache[index] = AoLuminanceFix.INSTANCE.apply(blockView, pos, state);
+			aoLevelStamps[index] = generation;
 		}
 
-		return result;
+		return aoLevelCache[index];
 	}
 }
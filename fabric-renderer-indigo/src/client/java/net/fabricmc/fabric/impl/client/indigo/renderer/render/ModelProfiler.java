@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.client.indigo.renderer.render;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import net.minecraft.block.Block;
+import net.minecraft.registry.Registries;
+
+import net.fabricmc.fabric.impl.client.indigo.Indigo;
+
+/**
+ * Records the cost of tessellating each model class and each block during chunk rebuilds,
+ * when {@link Indigo#PROFILE_MODELS} is enabled.
+ *
+ * <p>Each chunk builder thread owns the profiler of its {@link TerrainRenderContext}, so recording only
+ * takes an uncontended lock. Statistics of all threads are merged when they are read.
+ */
+public final class ModelProfiler {
+	private static final List<ModelProfiler> PROFILERS = new CopyOnWriteArrayList<>();
+	private static final long SUMMARY_REFRESH_NANOS = 1_000_000_000L;
+
+	// Only accessed from the render thread.
+	private static String summary;
+	private static long summaryTime;
+
+	private final Map<Class<?>, Stats> modelStats = new HashMap<>();
+	private final Map<Block, Stats> blockStats = new HashMap<>();
+
+	ModelProfiler() {
+		PROFILERS.add(this);
+	}
+
+	synchronized void record(Class<?> modelClass, Block block, int quads, int transformedQuads, long nanos) {
+		modelStats.computeIfAbsent(modelClass, c -> new Stats()).add(quads, transformedQuads, nanos);
+		blockStats.computeIfAbsent(block, b -> new Stats()).add(quads, transformedQuads, nanos);
+	}
+
+	private synchronized void clear() {
+		modelStats.clear();
+		blockStats.clear();
+	}
+
+	/**
+	 * Returns the statistics of each model class of all threads, most expensive first.
+	 */
+	public static List<Entry> getModelStats() {
+		return merge(p -> p.modelStats, Class::getName);
+	}
+
+	/**
+	 * Returns the statistics of each block of all threads, most expensive first.
+	 */
+	public static List<Entry> getBlockStats() {
+		return merge(p -> p.blockStats, block -> Registries.BLOCK.getId(block).toString());
+	}
+
+	/**
+	 * Returns the number of chunk builder threads that have a profiler.
+	 */
+	public static int getThreadCount() {
+		return PROFILERS.size();
+	}
+
+	/**
+	 * Returns a one line summary of the model statistics for the debug HUD. Merging the statistics
+	 * takes the lock of every chunk builder thread, so the summary is refreshed at most once per second.
+	 */
+	public static String getSummary() {
+		long time = System.nanoTime();
+
+		if (summary == null || time - summaryTime >= SUMMARY_REFRESH_NANOS) {
+			List<Entry> stats = getModelStats();
+			long nanos = 0;
+
+			for (Entry entry : stats) {
+				nanos += entry.nanos();
+			}
+
+			String slowest = stats.isEmpty() ? "none" : stats.get(0).name();
+			summary = String.format(Locale.ROOT, "[Indigo] Models: %d classes, %.1f ms, slowest: %s", stats.size(), nanos / 1e6, slowest);
+			summaryTime = time;
+		}
+
+		return summary;
+	}
+
+	public static void reset() {
+		for (ModelProfiler profiler : PROFILERS) {
+			profiler.clear();
+		}
+	}
+
+	private static <K> List<Entry> merge(Function<ModelProfiler, Map<K, Stats>> statsGetter, Function<K, String> nameGetter) {
+		Map<K, Stats> merged = new HashMap<>();
+
+		for (ModelProfiler profiler : PROFILERS) {
+			synchronized (profiler) {
+				statsGetter.apply(profiler).forEach((key, stats) -> merged.computeIfAbsent(key, k -> new Stats()).add(stats));
+			}
+		}
+
+		List<Entry> entries = new ArrayList<>(merged.size());
+		merged.forEach((key, stats) -> entries.add(new Entry(nameGetter.apply(key), stats.calls, stats.quads, stats.transformedQuads, stats.nanos)));
+		entries.sort(Comparator.comparingLong(Entry::nanos).reversed());
+		return entries;
+	}
+
+	/**
+	 * Summary of the tessellation cost of a model class or block.
+	 *
+	 * @param name the model class name or block id
+	 * @param calls the number of tessellated blocks
+	 * @param quads the number of quads emitted by the models
+	 * @param transformedQuads the number of emitted quads that went through a quad transform
+	 * @param nanos the total time spent emitting the quads, including their lighting and buffering
+	 */
+	public record Entry(String name, long calls, long quads, long transformedQuads, long nanos) {
+	}
+
+	private static class Stats {
+		long calls;
+		long quads;
+		long transformedQuads;
+		long nanos;
+
+		void add(int quads, int transformedQuads, long nanos) {
+			this.calls++;
+			this.quads += quads;
+			this.transformedQuads += transformedQuads;
+			this.nanos += nanos;
+		}
+
+		void add(Stats other) {
+			this.calls += other.calls;
+			this.quads += other.quads;
+			this.transformedQuads += other.transformedQuads;
+			this.nanos += other.nanos;
+		}
+	}
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.client.indigo.renderer.render;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.CacheBuilder;
+import org.jetbrains.annotations.Nullable;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.client.render.model.BakedModel;
+
+import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
+import net.fabricmc.fabric.api.renderer.v1.model.FabricBakedModel;
+
+/**
+ * Holds the quads emitted by models that {@linkplain FabricBakedModel#hasStaticBlockQuads() declare them static},
+ * for each block state, shared by all chunk builder threads.
+ *
+ * <p>Models are weakly referenced, so the cached quads are released with the models when resources are reloaded.
+ */
+final class StaticQuadCache {
+	static final StaticQuadCache INSTANCE = new StaticQuadCache();
+
+	private final Map<BakedModel, Map<BlockState, Mesh>> meshes = CacheBuilder.newBuilder().weakKeys().<BakedModel, Map<BlockState, Mesh>>build().asMap();
+
+	private StaticQuadCache() {
+	}
+
+	@Nullable
+	Mesh get(BakedModel model, BlockState state) {
+		Map<BlockState, Mesh> stateMeshes = meshes.get(model);
+		return stateMeshes == null ? null : stateMeshes.get(state);
+	}
+
+	void put(BakedModel model, BlockState state, Mesh mesh) {
+		meshes.computeIfAbsent(model, m -> new ConcurrentHashMap<>()).putIfAbsent(state, mesh);
+	}
+}
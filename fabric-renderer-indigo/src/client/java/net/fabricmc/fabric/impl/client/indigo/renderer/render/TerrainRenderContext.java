@@ -18,6 +18,8 @@ package net.fabricmc.fabric.impl.client.indigo.renderer.render;
 
 import java.util.function.Function;
 
+import org.jetbrains.annotations.Nullable;
+
 import net.minecraft.block.BlockState;
 import net.minecraft.client.render.BufferBuilder;
 import net.minecraft.client.render.OverlayTexture;
@@ -30,11 +32,16 @@ import net.minecraft.util.crash.CrashException;
 import net.minecraft.util.crash.CrashReport;
 import net.minecraft.util.crash.CrashReportSection;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
 import net.minecraft.util.math.Vec3d;
 import net.minecraft.util.math.random.Random;
 
+import net.fabricmc.fabric.api.renderer.v1.mesh.Mesh;
 import net.fabricmc.fabric.api.renderer.v1.render.RenderContext;
+import net.fabricmc.fabric.impl.client.indigo.Indigo;
 import net.fabricmc.fabric.impl.client.indigo.renderer.aocalc.AoCalculator;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MeshBuilderImpl;
+import net.fabricmc.fabric.impl.client.indigo.renderer.mesh.MeshImpl;
 
 /**
  * Implementation of {@link RenderContext} used during terrain rendering.
@@ -45,6 +52,11 @@ public class TerrainRenderContext extends AbstractBlockRenderContext {
 	public static final ThreadLocal<TerrainRenderContext> POOL = ThreadLocal.withInitial(TerrainRenderContext::new);
 
 	private final ChunkRenderInfo chunkInfo = new ChunkRenderInfo();
+	private final MeshBuilderImpl staticQuadBuilder = new MeshBuilderImpl();
+	@Nullable
+	private final MeshBuilderImpl debugQuadBuilder = Indigo.DEBUG_COMPARE_STATIC_QUADS ? new MeshBuilderImpl() : null;
+	@Nullable
+	private final ModelProfiler profiler = Indigo.PROFILE_MODELS ? new ModelProfiler() : null;
 
 	public TerrainRenderContext() {
 		overlay = OverlayTexture.DEFAULT_UV;
@@ -71,8 +83,8 @@ public class TerrainRenderContext extends AbstractBlockRenderContext {
 		return chunkInfo.getBuffer(layer);
 	}
 
-	public void prepare(ChunkRendererRegion blockView, Function<RenderLayer, BufferBuilder> bufferFunc) {
-		chunkInfo.prepare(blockView, bufferFunc);
+	public void prepare(ChunkRendererRegion blockView, ChunkSectionPos sectionPos, Function<RenderLayer, BufferBuilder> bufferFunc) {
+		chunkInfo.prepare(blockView, sectionPos, bufferFunc);
 		blockInfo.prepareForWorld(blockView, true);
 	}
 
@@ -94,7 +106,16 @@ public class TerrainRenderContext extends AbstractBlockRenderContext {
 
 			aoCalc.clear();
 			blockInfo.prepareForBlock(blockState, blockPos, model.useAmbientOcclusion());
-			model.emitBlockQuads(blockInfo.blockView, blockInfo.blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+
+			if (Indigo.PROFILE_MODELS) {
+				emittedQuads = 0;
+				transformedQuads = 0;
+				final long start = System.nanoTime();
+				emitBlockQuads(blockState, model);
+				profiler.record(model.getClass(), blockState.getBlock(), emittedQuads, transformedQuads, System.nanoTime() - start);
+			} else {
+				emitBlockQuads(blockState, model);
+			}
 		} catch (Throwable throwable) {
 			CrashReport crashReport = CrashReport.create(throwable, "Tessellating block in world - Indigo Renderer");
 			CrashReportSection crashReportSection = crashReport.addElement("Block being tessellated");
@@ -102,4 +123,66 @@ public class TerrainRenderContext extends AbstractBlockRenderContext {
 			throw new CrashException(crashReport);
 		}
 	}
+
+	/**
+	 * Replays the cached quads of models with static block quads,
+	 * or captures them the first time the model is tessellated for the block state.
+	 * The replayed quads go through the usual culling, coloring and lighting.
+	 */
+	private void emitBlockQuads(BlockState blockState, BakedModel model) {
+		if (!model.hasStaticBlockQuads()) {
+			model.emitBlockQuads(blockInfo.blockView, blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+			return;
+		}
+
+		final Mesh cached = StaticQuadCache.INSTANCE.get(model, blockState);
+
+		if (cached != null) {
+			if (Indigo.DEBUG_COMPARE_STATIC_QUADS) {
+				compareStaticQuads(blockState, model, cached);
+			}
+
+			cached.outputTo(getEmitter());
+			return;
+		}
+
+		captureBuilder = staticQuadBuilder;
+		boolean complete = false;
+
+		try {
+			model.emitBlockQuads(blockInfo.blockView, blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+			complete = true;
+		} finally {
+			captureBuilder = null;
+			// Always build to reset the builder, even if the model failed half-way.
+			final Mesh mesh = staticQuadBuilder.build();
+
+			if (complete) {
+				StaticQuadCache.INSTANCE.put(model, blockState, mesh);
+			}
+		}
+	}
+
+	/**
+	 * Shades the cached quads and the quads emitted by the model for the current block without buffering them,
+	 * and logs a mismatch if culling, coloring or lighting turned out differently.
+	 */
+	private void compareStaticQuads(BlockState blockState, BakedModel model, Mesh cached) {
+		final Mesh replayed;
+		final Mesh tessellated;
+		outputCaptureBuilder = debugQuadBuilder;
+
+		try {
+			cached.outputTo(getEmitter());
+			replayed = debugQuadBuilder.build();
+			model.emitBlockQuads(blockInfo.blockView, blockState, blockInfo.blockPos, blockInfo.randomSupplier, this);
+			tessellated = debugQuadBuilder.build();
+		} finally {
+			outputCaptureBuilder = null;
+		}
+
+		if (!((MeshImpl) replayed).hasSameQuads((MeshImpl) tessellated)) {
+			Indigo.LOGGER.info(String.format("Static quad mismatch for %s @ %s, model %s", blockState.toString(), blockInfo.blockPos.toString(), model.getClass().getName()));
+		}
+	}
 }
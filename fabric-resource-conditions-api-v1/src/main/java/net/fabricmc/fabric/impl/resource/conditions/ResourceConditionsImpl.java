@@ -22,7 +22,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
+import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.mojang.serialization.DataResult;
 import com.mojang.serialization.JsonOps;
@@ -42,6 +45,13 @@ import net.minecraft.util.Identifier;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.resource.conditions.v1.ResourceCondition;
 import net.fabricmc.fabric.api.resource.conditions.v1.ResourceConditions;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.AllModsLoadedResourceCondition;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.AndResourceCondition;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.AnyModsLoadedResourceCondition;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.FeaturesEnabledResourceCondition;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.NotResourceCondition;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.OrResourceCondition;
+import net.fabricmc.fabric.impl.resource.conditions.conditions.TrueResourceCondition;
 import net.fabricmc.loader.api.FabricLoader;
 
 public final class ResourceConditionsImpl implements ModInitializer {
@@ -65,10 +75,11 @@ public final class ResourceConditionsImpl implements ModInitializer {
 		boolean debugLogEnabled = ResourceConditionsImpl.LOGGER.isDebugEnabled();
 
 		if (obj.has(ResourceConditions.CONDITIONS_KEY)) {
-			DataResult<ResourceCondition> conditions = ResourceCondition.CONDITION_CODEC.parse(JsonOps.INSTANCE, obj.get(ResourceConditions.CONDITIONS_KEY));
+			ParsedConditions parsed = parseConditions(obj.get(ResourceConditions.CONDITIONS_KEY));
+			DataResult<ResourceCondition> conditions = parsed.conditions;
 
 			if (conditions.isSuccess()) {
-				boolean matched = conditions.getOrThrow().test(registryLookup);
+				boolean matched = testConditions(parsed, registryLookup);
 
 				if (debugLogEnabled) {
 					String verdict = matched ? "Allowed" : "Rejected";
@@ -84,6 +95,117 @@ public final class ResourceConditionsImpl implements ModInitializer {
 		return true;
 	}
 
+	// Condition caching
+
+	/**
+	 * Parsed conditions, keyed by their JSON. Datapacks often repeat the same conditions in many files,
+	 * and {@link JsonElement#equals} and {@link JsonElement#hashCode} compare the JSON structurally, so each distinct condition is only parsed once.
+	 * Cleared on every data pack reload, which also forgets the verdicts cached for the previously enabled features.
+	 */
+	private static final Map<JsonElement, ParsedConditions> PARSED_CONDITIONS = new ConcurrentHashMap<>();
+	private static final LongAdder CONDITIONS_APPLIED = new LongAdder();
+	private static final LongAdder CONDITIONS_PARSED = new LongAdder();
+	private static final LongAdder CONDITIONS_TESTED = new LongAdder();
+
+	private static final class ParsedConditions {
+		final DataResult<ResourceCondition> conditions;
+		/**
+		 * Whether the verdict can't change during a reload, see {@link #isReloadInvariant}.
+		 */
+		final boolean reloadInvariant;
+		/**
+		 * The verdict of reload invariant conditions, once they were tested.
+		 */
+		@Nullable
+		volatile Boolean verdict;
+
+		ParsedConditions(DataResult<ResourceCondition> conditions) {
+			this.conditions = conditions;
+			this.reloadInvariant = conditions.isSuccess() && isReloadInvariant(conditions.getOrThrow());
+		}
+	}
+
+	private static ParsedConditions parseConditions(JsonElement json) {
+		CONDITIONS_APPLIED.increment();
+		ParsedConditions parsed = PARSED_CONDITIONS.get(json);
+
+		if (parsed == null) {
+			CONDITIONS_PARSED.increment();
+			parsed = new ParsedConditions(ResourceCondition.CONDITION_CODEC.parse(JsonOps.INSTANCE, json));
+			// Copy the key, as the resource's JSON could be modified after this.
+			ParsedConditions previous = PARSED_CONDITIONS.putIfAbsent(json.deepCopy(), parsed);
+
+			if (previous != null) {
+				parsed = previous;
+			}
+		}
+
+		return parsed;
+	}
+
+	private static boolean testConditions(ParsedConditions parsed, @Nullable RegistryWrapper.WrapperLookup registryLookup) {
+		Boolean verdict = parsed.verdict;
+
+		if (verdict != null) {
+			return verdict;
+		}
+
+		CONDITIONS_TESTED.increment();
+		boolean matched = parsed.conditions.getOrThrow().test(registryLookup);
+
+		if (parsed.reloadInvariant) {
+			// Racing threads compute the same verdict, so there is no need to lock.
+			parsed.verdict = matched;
+		}
+
+		return matched;
+	}
+
+	/**
+	 * Returns whether the verdict of a condition only depends on the loaded mods and the enabled features.
+	 * Conditions of other mods are never considered invariant, since they could depend on anything.
+	 */
+	private static boolean isReloadInvariant(ResourceCondition condition) {
+		if (condition instanceof TrueResourceCondition
+				|| condition instanceof AllModsLoadedResourceCondition
+				|| condition instanceof AnyModsLoadedResourceCondition
+				|| condition instanceof FeaturesEnabledResourceCondition) {
+			return true;
+		} else if (condition instanceof NotResourceCondition not) {
+			return isReloadInvariant(not.condition());
+		} else if (condition instanceof AndResourceCondition and) {
+			return and.conditions().stream().allMatch(ResourceConditionsImpl::isReloadInvariant);
+		} else if (condition instanceof OrResourceCondition or) {
+			return or.conditions().stream().allMatch(ResourceConditionsImpl::isReloadInvariant);
+		}
+
+		return false;
+	}
+
+	/**
+	 * Called at the start of a data pack reload with the features that will be enabled.
+	 */
+	public static void startReload(FeatureSet enabledFeatures) {
+		currentFeatures = enabledFeatures;
+		PARSED_CONDITIONS.clear();
+		CONDITIONS_APPLIED.reset();
+		CONDITIONS_PARSED.reset();
+		CONDITIONS_TESTED.reset();
+	}
+
+	/**
+	 * Called once the reloaded data packs are applied, logs how much work the caches saved.
+	 */
+	public static void endReload() {
+		long applied = CONDITIONS_APPLIED.sum();
+
+		if (applied > 0) {
+			long parsed = CONDITIONS_PARSED.sum();
+			long tested = CONDITIONS_TESTED.sum();
+			LOGGER.debug("Applied resource conditions to {} resources: {} parses and {} evaluations were avoided", applied, applied - parsed, applied - tested);
+		}
+	}
+
 	// Condition implementations
 
 	public static boolean conditionsMet(List<ResourceCondition> conditions, @Nullable RegistryWrapper.WrapperLookup registryLookup, boolean and) {
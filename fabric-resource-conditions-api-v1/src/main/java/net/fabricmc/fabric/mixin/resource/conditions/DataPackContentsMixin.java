@@ -42,6 +42,7 @@ public class DataPackContentsMixin {
 	)
 	private void hookRefresh(CallbackInfo ci) {
 		ResourceConditionsImpl.LOADED_TAGS.remove();
+		ResourceConditionsImpl.endReload();
 	}
 
 	@Inject(
@@ -49,6 +50,6 @@ public class DataPackContentsMixin {
 			at = @At("HEAD")
 	)
 	private static void hookReload(ResourceManager manager, CombinedDynamicRegistries<ServerDynamicRegistryType> combinedDynamicRegistries, FeatureSet enabledFeatures, CommandManager.RegistrationEnvironment environment, int functionPermissionLevel, Executor prepareExecutor, Executor applyExecutor, CallbackInfoReturnable<CompletableFuture<DataPackContents>> cir) {
-		ResourceConditionsImpl.currentFeatures = enabledFeatures;
+		ResourceConditionsImpl.startReload(enabledFeatures);
 	}
 }
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.resource.conditions.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.MapCodec;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.Bootstrap;
+import net.minecraft.SharedConstants;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKeys;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.resource.featuretoggle.FeatureFlags;
+import net.minecraft.resource.featuretoggle.FeatureSet;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.resource.conditions.v1.ResourceCondition;
+import net.fabricmc.fabric.api.resource.conditions.v1.ResourceConditionType;
+import net.fabricmc.fabric.api.resource.conditions.v1.ResourceConditions;
+import net.fabricmc.fabric.impl.resource.conditions.DefaultResourceConditionTypes;
+import net.fabricmc.fabric.impl.resource.conditions.ResourceConditionsImpl;
+
+/**
+ * Tests for the caches of parsed conditions and of their verdicts in {@link ResourceConditionsImpl}.
+ */
+public class ResourceConditionsCacheTests {
+	private static final String MOD_ID = "fabric-resource-conditions-api-v1-testmod";
+	private static final Identifier KEY = Identifier.of(MOD_ID, "test");
+	private static final AtomicInteger PARSES = new AtomicInteger();
+	private static final AtomicInteger TESTS = new AtomicInteger();
+	private static final ResourceConditionType<CountingCondition> COUNTING = ResourceConditionType.create(Identifier.of(MOD_ID, "counting"), CountingCondition.CODEC);
+
+	@BeforeAll
+	static void beforeAll() {
+		SharedConstants.createGameVersion();
+		Bootstrap.initialize();
+
+		if (ResourceConditions.getConditionType(DefaultResourceConditionTypes.TRUE.id()) == null) {
+			new ResourceConditionsImpl().onInitialize();
+		}
+
+		ResourceConditions.register(COUNTING);
+	}
+
+	@BeforeEach
+	void beforeEach() {
+		ResourceConditionsImpl.startReload(FeatureFlags.VANILLA_FEATURES);
+		ResourceConditionsImpl.LOADED_TAGS.remove();
+		PARSES.set(0);
+		TESTS.set(0);
+	}
+
+	@Test
+	void testEqualJsonParsedOnce() {
+		String conditions = """
+				[{"condition": "%s", "value": true}, {"condition": "fabric:true"}]
+				""".formatted(COUNTING.id());
+
+		// Different instances with the same structure, as if they came from different files.
+		assertTrue(apply(conditions, null));
+		assertTrue(apply(conditions, null));
+		assertTrue(apply(conditions.replace(" ", ""), null));
+		assertEquals(1, PARSES.get());
+
+		// The parse cache is cleared on reload.
+		ResourceConditionsImpl.startReload(FeatureFlags.VANILLA_FEATURES);
+		assertTrue(apply(conditions, null));
+		assertEquals(2, PARSES.get());
+	}
+
+	@Test
+	void testCachedJsonCannotBeModified() {
+		JsonObject object = resource("""
+				{"condition": "%s", "value": true}
+				""".formatted(COUNTING.id()));
+		assertTrue(ResourceConditionsImpl.applyResourceConditions(object, "tests", KEY, null));
+
+		// Modifying the resource after its conditions were applied doesn't change the cached entry.
+		object.getAsJsonObject(ResourceConditions.CONDITIONS_KEY).addProperty("value", false);
+		assertFalse(ResourceConditionsImpl.applyResourceConditions(object, "tests", KEY, null));
+		assertTrue(apply("""
+				{"condition": "%s", "value": true}
+				""".formatted(COUNTING.id()), null));
+		assertEquals(2, PARSES.get());
+	}
+
+	@Test
+	void testThirdPartyConditionsTestedEveryTime() {
+		String conditions = """
+				{"condition": "fabric:and", "values": [{"condition": "fabric:true"}, {"condition": "%s", "value": true}]}
+				""".formatted(COUNTING.id());
+
+		for (int i = 0; i < 3; ++i) {
+			assertTrue(apply(conditions, null));
+		}
+
+		assertEquals(1, PARSES.get());
+		assertEquals(3, TESTS.get());
+	}
+
+	@Test
+	void testTagsPopulatedTestedEveryTime() {
+		String conditions = """
+				{"condition": "fabric:tags_populated", "registry": "minecraft:item", "values": ["c:test"]}
+				""";
+
+		ResourceConditionsImpl.LOADED_TAGS.set(Map.of(RegistryKeys.ITEM, Set.of(Identifier.of("c", "test"))));
+		assertTrue(apply(conditions, null));
+
+		// Tags change during the reload, once they are loaded.
+		ResourceConditionsImpl.LOADED_TAGS.set(Map.of(RegistryKeys.ITEM, Set.of()));
+		assertFalse(apply(conditions, null));
+	}
+
+	@Test
+	void testRegistryContainsTestedEveryTime() {
+		String conditions = """
+				{"condition": "fabric:registry_contains", "registry": "minecraft:item", "values": ["minecraft:diamond"]}
+				""";
+
+		// The verdict depends on the registry lookup passed by each caller.
+		assertFalse(apply(conditions, null));
+		assertTrue(apply(conditions, DynamicRegistryManager.of(Registries.REGISTRIES)));
+		assertFalse(apply(conditions, null));
+	}
+
+	@Test
+	void testFeaturesEnabledDroppedOnReload() {
+		String conditions = """
+				{"condition": "fabric:features_enabled", "features": ["minecraft:trade_rebalance"]}
+				""";
+		FeatureSet withTradeRebalance = FeatureSet.of(FeatureFlags.VANILLA, FeatureFlags.TRADE_REBALANCE);
+
+		assertFalse(apply(conditions, null));
+
+		// The verdict is cached for the whole reload, even if the features were changed behind its back.
+		ResourceConditionsImpl.currentFeatures = withTradeRebalance;
+		assertFalse(apply(conditions, null));
+
+		// A reload with other features tests the condition again.
+		ResourceConditionsImpl.startReload(withTradeRebalance);
+		assertTrue(apply(conditions, null));
+
+		ResourceConditionsImpl.startReload(FeatureFlags.VANILLA_FEATURES);
+		assertFalse(apply(conditions, null));
+	}
+
+	private static boolean apply(String conditions, @Nullable RegistryWrapper.WrapperLookup registryLookup) {
+		return ResourceConditionsImpl.applyResourceConditions(resource(conditions), "tests", KEY, registryLookup);
+	}
+
+	private static JsonObject resource(String conditions) {
+		JsonObject object = new JsonObject();
+		object.add(ResourceConditions.CONDITIONS_KEY, JsonParser.parseString(conditions));
+		return object;
+	}
+
+	/**
+	 * A condition of another mod, which counts how many times it is parsed and tested.
+	 */
+	private record CountingCondition(boolean value) implements ResourceCondition {
+		static final MapCodec<CountingCondition> CODEC = Codec.BOOL.fieldOf("value").xmap(value -> {
+			PARSES.incrementAndGet();
+			return new CountingCondition(value);
+		}, CountingCondition::value);
+
+		@Override
+		public ResourceConditionType<?> getType() {
+			return COUNTING;
+		}
+
+		@Override
+		public boolean test(@Nullable RegistryWrapper.WrapperLookup registryLookup) {
+			TESTS.incrementAndGet();
+			return value;
+		}
+	}
+}
@@ -27,6 +27,7 @@ import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
@@ -36,6 +37,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.jetbrains.annotations.Nullable;
@@ -62,6 +64,11 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 	private static final Logger LOGGER = LoggerFactory.getLogger(ModNioResourcePack.class);
 	private static final Pattern RESOURCE_PACK_PATH = Pattern.compile("[a-z0-9-_.]+");
 	private static final FileSystem DEFAULT_FS = FileSystems.getDefault();
+	/**
+	 * Indexes shared by the packs of the same base path and type, since packs are created again on every reload
+	 * while the contents of mod jars can't change.
+	 */
+	private static final Map<IndexKey, ModResourcePathIndex> SHARED_INDEXES = new ConcurrentHashMap<>();
 
 	private final String id;
 	private final ModContainer mod;
@@ -75,6 +82,13 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 	 * @see ModResourcePackUtil#appendModResourcePacks(List, ResourceType, String)
 	 */
 	private final boolean modBundled;
+	/**
+	 * Index of the files of the pack type of each base path, retrieved on first use,
+	 * with {@code null} for base paths that aren't indexed.
+	 * @see #getIndex(Path)
+	 */
+	@Nullable
+	private volatile ModResourcePathIndex[] indexes;
 
 	public static ModNioResourcePack create(String id, ModContainer mod, String subPath, ResourceType type, ResourcePackActivationType activationType, boolean modBundled) {
 		List<Path> rootPaths = mod.getRootPaths();
@@ -121,8 +135,17 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 		this.type = type;
 		this.activationType = activationType;
 		this.modBundled = modBundled;
-		this.namespaces = readNamespaces(paths, mod.getMetadata().getId());
 		this.metadata = metadata;
+
+		if (ModResourceIndexCache.ENABLED) {
+			// Read the namespaces of the pack type from the indexes, which may come from the cache and not need to access the jars.
+			ModResourcePathIndex[] indexes = getIndexes();
+			this.namespaces = Arrays.stream(indexes).allMatch(Objects::nonNull)
+					? readNamespaces(paths, indexes, type, mod.getMetadata().getId())
+					: readNamespaces(paths, mod.getMetadata().getId());
+		} else {
+			this.namespaces = readNamespaces(paths, mod.getMetadata().getId());
+		}
 	}
 
 	@Override
@@ -137,37 +160,81 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 		Map<ResourceType, Set<String>> ret = new EnumMap<>(ResourceType.class);
 
 		for (ResourceType type : ResourceType.values()) {
-			Set<String> namespaces = null;
+			ret.put(type, readNamespaces(paths, type, modId));
+		}
 
-			for (Path path : paths) {
-				Path dir = path.resolve(type.getDirectory());
-				if (!Files.isDirectory(dir)) continue;
+		return ret;
+	}
 
-				String separator = path.getFileSystem().getSeparator();
+	private static Set<String> readNamespaces(List<Path> paths, ResourceType type, String modId) {
+		Set<String> namespaces = null;
 
-				try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
-					for (Path p : ds) {
-						if (!Files.isDirectory(p)) continue;
+		for (Path path : paths) {
+			Path dir = path.resolve(type.getDirectory());
+			if (!Files.isDirectory(dir)) continue;
 
-						String s = p.getFileName().toString();
-						// s may contain trailing slashes, remove them
-						s = s.replace(separator, "");
+			String separator = path.getFileSystem().getSeparator();
 
-						if (!RESOURCE_PACK_PATH.matcher(s).matches()) {
-							LOGGER.warn("Fabric NioResourcePack: ignored invalid namespace: {} in mod ID {}", s, modId);
-							continue;
-						}
+			try (DirectoryStream<Path> ds = Files.newDirectoryStream(dir)) {
+				for (Path p : ds) {
+					if (!Files.isDirectory(p)) continue;
 
-						if (namespaces == null) namespaces = new HashSet<>();
+					String s = p.getFileName().toString();
+					// s may contain trailing slashes, remove them
+					s = s.replace(separator, "");
 
-						namespaces.add(s);
+					if (!RESOURCE_PACK_PATH.matcher(s).matches()) {
+						LOGGER.warn("Fabric NioResourcePack: ignored invalid namespace: {} in mod ID {}", s, modId);
+						continue;
 					}
-				} catch (IOException e) {
-					LOGGER.warn("getNamespaces in mod " + modId + " failed!", e);
+
+					if (namespaces == null) namespaces = new HashSet<>();
+
+					namespaces.add(s);
 				}
+			} catch (IOException e) {
+				LOGGER.warn("getNamespaces in mod " + modId + " failed!", e);
 			}
+		}
 
-			ret.put(type, namespaces != null ? namespaces : Collections.emptySet());
+		return namespaces != null ? namespaces : Collections.emptySet();
+	}
+
+	/**
+	 * Reads the namespaces of the pack type from the indexes, and the namespaces of the other types,
+	 * which aren't indexed, from the file system.
+	 */
+	private static Map<ResourceType, Set<String>> readNamespaces(List<Path> paths, ModResourcePathIndex[] indexes, ResourceType packType, String modId) {
+		Map<ResourceType, Set<String>> ret = new EnumMap<>(ResourceType.class);
+
+		for (ResourceType type : ResourceType.values()) {
+			if (type != packType) {
+				ret.put(type, readNamespaces(paths, type, modId));
+				continue;
+			}
+
+			Set<String> namespaces = new HashSet<>();
+
+			for (ModResourcePathIndex index : indexes) {
+				index.forEachUnder(type.getDirectory(), file -> {
+					int start = type.getDirectory().length() + 1;
+					int end = file.indexOf('/', start);
+
+					// Files directly in the type directory aren't in a namespace.
+					if (end >= 0) {
+						namespaces.add(file.substring(start, end));
+					}
+				});
+			}
+
+			namespaces.removeIf(namespace -> {
+				if (RESOURCE_PACK_PATH.matcher(namespace).matches()) return false;
+
+				LOGGER.warn("Fabric NioResourcePack: ignored invalid namespace: {} in mod ID {}", namespace, modId);
+				return true;
+			});
+
+			ret.put(type, namespaces.isEmpty() ? Collections.emptySet() : namespaces);
 		}
 
 		return ret;
@@ -176,7 +243,20 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 	private Path getPath(String filename) {
 		if (hasAbsentNs(filename)) return null;
 
-		for (Path basePath : basePaths) {
+		ModResourcePathIndex[] indexes = getIndexes();
+		boolean normalized = ModResourcePathIndex.isNormalized(filename);
+
+		for (int i = 0; i < basePaths.size(); i++) {
+			Path basePath = basePaths.get(i);
+
+			if (indexes[i] != null && normalized && indexes[i].covers(filename)) {
+				if (indexes[i].contains(filename)) {
+					return basePath.resolve(filename);
+				}
+
+				continue;
+			}
+
 			Path childPath = basePath.resolve(filename.replace("/", basePath.getFileSystem().getSeparator())).toAbsolutePath().normalize();
 
 			if (childPath.startsWith(basePath) && exists(childPath)) {
@@ -187,6 +267,74 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 		return null;
 	}
 
+	private ModResourcePathIndex[] getIndexes() {
+		ModResourcePathIndex[] indexes = this.indexes;
+
+		if (indexes == null) {
+			synchronized (this) {
+				indexes = this.indexes;
+
+				if (indexes == null) {
+					indexes = new ModResourcePathIndex[basePaths.size()];
+
+					for (int i = 0; i < indexes.length; i++) {
+						indexes[i] = getIndex(basePaths.get(i));
+					}
+
+					this.indexes = indexes;
+				}
+			}
+		}
+
+		return indexes;
+	}
+
+	/**
+	 * Returns the index of the files of the pack type of a base path, if it's inside of a mod jar.
+	 * Directories on the default file system are not indexed, because their files can change while the game
+	 * is running, for example when editing the resources of a mod in development.
+	 */
+	@Nullable
+	private ModResourcePathIndex getIndex(Path basePath) {
+		if (basePath.getFileSystem() == DEFAULT_FS) {
+			return null;
+		}
+
+		IndexKey key = new IndexKey(basePath, type);
+		ModResourcePathIndex index = SHARED_INDEXES.get(key);
+
+		if (index == null) {
+			index = buildIndex(basePath);
+
+			if (index != null) {
+				// Another pack may have built the same index concurrently, keep the first one.
+				ModResourcePathIndex previous = SHARED_INDEXES.putIfAbsent(key, index);
+
+				if (previous != null) {
+					index = previous;
+				}
+			}
+		}
+
+		return index;
+	}
+
+	@Nullable
+	private ModResourcePathIndex buildIndex(Path basePath) {
+		String directory = type.getDirectory();
+
+		if (!exists(basePath)) {
+			return new ModResourcePathIndex(directory, new String[0]);
+		}
+
+		try {
+			return ModResourceIndexCache.ENABLED ? ModResourceIndexCache.get().getOrBuild(mod, basePath, directory) : ModResourcePathIndex.build(basePath, directory);
+		} catch (IOException e) {
+			LOGGER.warn("Failed to index resources at " + basePath + " in mod " + mod.getMetadata().getId() + ", falling back to file system lookups", e);
+			return null;
+		}
+	}
+
 	private static final String resPrefix = ResourceType.CLIENT_RESOURCES.getDirectory() + "/";
 	private static final String dataPrefix = ResourceType.SERVER_DATA.getDirectory() + "/";
 
@@ -245,7 +393,27 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 			return;
 		}
 
-		for (Path basePath : basePaths) {
+		ModResourcePathIndex[] indexes = getIndexes();
+		String nsPrefix = type.getDirectory() + "/" + namespace;
+
+		for (int i = 0; i < basePaths.size(); i++) {
+			Path basePath = basePaths.get(i);
+
+			if (indexes[i] != null && indexes[i].covers(nsPrefix) && (path.isEmpty() || ModResourcePathIndex.isNormalized(path))) {
+				indexes[i].forEachUnder(path.isEmpty() ? nsPrefix : nsPrefix + "/" + path, file -> {
+					String filename = file.substring(nsPrefix.length() + 1);
+					Identifier identifier = Identifier.tryParse(namespace, filename);
+
+					if (identifier == null) {
+						LOGGER.error("Invalid path in mod resource-pack {}: {}:{}, ignoring", id, namespace, filename);
+					} else {
+						visitor.accept(identifier, InputSupplier.create(basePath.resolve(file)));
+					}
+				});
+
+				continue;
+			}
+
 			String separator = basePath.getFileSystem().getSeparator();
 			Path nsPath = basePath.resolve(type.getDirectory()).resolve(namespace);
 			Path searchPath = nsPath.resolve(path.replace("/", separator)).normalize();
@@ -316,4 +484,7 @@ public class ModNioResourcePack implements ResourcePack, ModResourcePack {
 	private static String getFilename(ResourceType type, Identifier id) {
 		return String.format(Locale.ROOT, "%s/%s/%s", type.getDirectory(), id.getNamespace(), id.getPath());
 	}
+
+	private record IndexKey(Path basePath, ResourceType type) {
+	}
 }
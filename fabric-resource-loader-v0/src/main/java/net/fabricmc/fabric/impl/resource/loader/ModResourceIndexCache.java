@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.resource.loader;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.fabricmc.loader.api.FabricLoader;
+import net.fabricmc.loader.api.ModContainer;
+import net.fabricmc.loader.api.metadata.ModOrigin;
+
+/**
+ * Optional cache of the {@link ModResourcePathIndex} of each mod jar, stored in the game directory,
+ * so that unchanged mods don't need to be walked again on the next startup.
+ * Enabled with the {@code fabric.resource.indexCache} system property.
+ *
+ * <p>Entries are keyed by the jar path, the base path inside of the jar and the indexed directory, and are only used while the size and
+ * modification time of the jar match the cached ones. Outdated entries are dropped when the cache is saved.
+ * A cache file that can't be read is ignored and replaced.
+ *
+ * <p>Format: magic, version, entry count, then for each entry the key, jar path, jar size, jar modification time,
+ * file count and files, and finally a CRC32 of everything before it. Strings are an int length followed by UTF-8 bytes,
+ * and each file is prefixed with the number of leading characters it shares with the previous one.
+ */
+public final class ModResourceIndexCache {
+	public static final boolean ENABLED = Boolean.getBoolean("fabric.resource.indexCache");
+	private static final Logger LOGGER = LoggerFactory.getLogger(ModResourceIndexCache.class);
+	private static final int MAGIC = 0x46524943; // FRIC
+	private static final int VERSION = 2;
+
+	@Nullable
+	private static ModResourceIndexCache instance;
+
+	private final Path file;
+	/** Entries of the cache file, as last read or written. */
+	private volatile Map<String, Entry> loaded;
+	/** Entries used or added during this session. */
+	private final Map<String, Entry> used = new ConcurrentHashMap<>();
+	private volatile boolean dirty;
+
+	private ModResourceIndexCache(Path file, Map<String, Entry> loaded) {
+		this.file = file;
+		this.loaded = loaded;
+	}
+
+	public static synchronized ModResourceIndexCache get() {
+		if (instance == null) {
+			Path file = FabricLoader.getInstance().getGameDir().resolve(".fabric").resolve("resource-index-cache.bin");
+			instance = new ModResourceIndexCache(file, load(file));
+		}
+
+		return instance;
+	}
+
+	/**
+	 * Returns the index of a directory of a base path of a mod, from the cache if the mod jar did not change,
+	 * or by walking the directory.
+	 */
+	ModResourcePathIndex getOrBuild(ModContainer mod, Path basePath, String directory) throws IOException {
+		Path jar = getJar(mod);
+
+		if (jar == null) {
+			return ModResourcePathIndex.build(basePath, directory);
+		}
+
+		String jarName = jar.toAbsolutePath().toString();
+		String key = jarName + "!" + basePath + "!" + directory;
+		Entry entry = used.get(key);
+
+		if (entry == null) {
+			BasicFileAttributes attributes = Files.readAttributes(jar, BasicFileAttributes.class);
+			long size = attributes.size();
+			long modified = attributes.lastModifiedTime().toMillis();
+			entry = loaded.get(key);
+
+			if (entry == null || entry.size() != size || entry.modified() != modified) {
+				entry = new Entry(jarName, size, modified, ModResourcePathIndex.build(basePath, directory).getFiles());
+				dirty = true;
+			}
+
+			used.put(key, entry);
+		}
+
+		return new ModResourcePathIndex(directory, entry.files());
+	}
+
+	/**
+	 * Returns the jar file of the mod, or {@code null} if the mod isn't a single jar on disk,
+	 * for example a mod nested in another jar or a directory in a development environment.
+	 */
+	@Nullable
+	private static Path getJar(ModContainer mod) {
+		if (mod.getOrigin().getKind() != ModOrigin.Kind.PATH) {
+			return null;
+		}
+
+		List<Path> paths = mod.getOrigin().getPaths();
+		return paths.size() == 1 && Files.isRegularFile(paths.get(0)) ? paths.get(0) : null;
+	}
+
+	/**
+	 * Writes the cache if any entry was added or if any entry of the cache file is outdated.
+	 * Entries of the cache file that were not used yet are kept as long as their jar did not change,
+	 * since packs of other types or sub paths may use them later.
+	 */
+	public synchronized void save() {
+		Map<String, Entry> entries = new HashMap<>();
+
+		loaded.forEach((key, entry) -> {
+			if (!used.containsKey(key) && isCurrent(entry)) {
+				entries.put(key, entry);
+			}
+		});
+
+		entries.putAll(used);
+
+		if (!dirty && entries.size() == loaded.size()) {
+			return;
+		}
+
+		try {
+			byte[] data = write(entries);
+			Files.createDirectories(file.getParent());
+			Path tempFile = Files.createTempFile(file.getParent(), "resource-index-cache", ".tmp");
+
+			try {
+				Files.write(tempFile, data);
+				Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} finally {
+				// No-op after a successful move, deletes the temporary file if writing or moving it failed.
+				Files.deleteIfExists(tempFile);
+			}
+			loaded = entries;
+			dirty = false;
+		} catch (IOException e) {
+			LOGGER.warn("Failed to save the resource index cache to {}", file, e);
+		}
+	}
+
+	private static boolean isCurrent(Entry entry) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(Path.of(entry.jar()), BasicFileAttributes.class);
+			return attributes.size() == entry.size() && attributes.lastModifiedTime().toMillis() == entry.modified();
+		} catch (IOException | InvalidPathException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Reads the entries of a cache file, or returns no entries if the file doesn't exist or can't be read.
+	 */
+	public static Map<String, Entry> load(Path file) {
+		byte[] data;
+
+		try {
+			data = Files.readAllBytes(file);
+		} catch (NoSuchFileException e) {
+			return Map.of();
+		} catch (IOException e) {
+			LOGGER.warn("Failed to read the resource index cache from {}", file, e);
+			return Map.of();
+		}
+
+		try {
+			return read(data);
+		} catch (RuntimeException e) {
+			LOGGER.warn("Ignoring invalid resource index cache {}", file, e);
+			return Map.of();
+		}
+	}
+
+	/**
+	 * @throws RuntimeException if the data is corrupt, truncated or of another format version
+	 */
+	public static Map<String, Entry> read(byte[] data) {
+		if (data.length < 4) {
+			throw new IllegalArgumentException("Truncated cache");
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(data, 0, data.length - 4);
+		ByteBuffer buf = ByteBuffer.wrap(data);
+
+		if (buf.getInt(data.length - 4) != (int) crc.getValue()) {
+			throw new IllegalArgumentException("Checksum mismatch");
+		}
+
+		buf.limit(data.length - 4);
+
+		if (buf.getInt() != MAGIC || buf.getInt() != VERSION) {
+			throw new IllegalArgumentException("Unknown format");
+		}
+
+		int count = readCount(buf);
+		Map<String, Entry> entries = new HashMap<>(count);
+
+		for (int i = 0; i < count; i++) {
+			String key = readString(buf);
+			String jar = readString(buf);
+			long size = buf.getLong();
+			long modified = buf.getLong();
+			String[] files = new String[readCount(buf)];
+			String previous = "";
+
+			for (int j = 0; j < files.length; j++) {
+				int shared = buf.getInt();
+
+				if (shared < 0 || shared > previous.length()) {
+					throw new IllegalArgumentException("Invalid shared prefix length " + shared);
+				}
+
+				files[j] = previous.substring(0, shared) + readString(buf);
+				previous = files[j];
+			}
+
+			entries.put(key, new Entry(jar, size, modified, files));
+		}
+
+		return entries;
+	}
+
+	public static byte[] write(Map<String, Entry> entries) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeInt(entries.size());
+
+		for (Map.Entry<String, Entry> mapEntry : entries.entrySet()) {
+			Entry entry = mapEntry.getValue();
+			writeString(out, mapEntry.getKey());
+			writeString(out, entry.jar());
+			out.writeLong(entry.size());
+			out.writeLong(entry.modified());
+			out.writeInt(entry.files().length);
+			String previous = "";
+
+			for (String file : entry.files()) {
+				int shared = 0;
+				int max = Math.min(previous.length(), file.length());
+
+				while (shared < max && previous.charAt(shared) == file.charAt(shared)) {
+					shared++;
+				}
+
+				// Don't split surrogate pairs between the prefix and the suffix.
+				if (shared > 0 && Character.isHighSurrogate(file.charAt(shared - 1))) {
+					shared--;
+				}
+
+				out.writeInt(shared);
+				writeString(out, file.substring(shared));
+				previous = file;
+			}
+		}
+
+		CRC32 crc = new CRC32();
+		crc.update(bytes.toByteArray());
+		out.writeInt((int) crc.getValue());
+		return bytes.toByteArray();
+	}
+
+	private static int readCount(ByteBuffer buf) {
+		int count = buf.getInt();
+
+		// Each element takes at least one byte, which bounds allocations when reading corrupt data.
+		if (count < 0 || count > buf.remaining()) {
+			throw new IllegalArgumentException("Invalid count " + count);
+		}
+
+		return count;
+	}
+
+	private static String readString(ByteBuffer buf) {
+		byte[] bytes = new byte[readCount(buf)];
+		buf.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static void writeString(DataOutputStream out, String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	public record Entry(String jar, long size, long modified, String[] files) {
+	}
+}
@@ -30,6 +30,9 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import com.google.common.base.Charsets;
 import com.google.gson.Gson;
@@ -64,6 +67,13 @@ import net.fabricmc.loader.api.metadata.ModMetadata;
 public final class ModResourcePackUtil {
 	public static final Gson GSON = new Gson();
 	private static final Logger LOGGER = LoggerFactory.getLogger(ModResourcePackUtil.class);
+	/**
+	 * Number of threads creating mod resource packs, each of which scans the namespaces of a mod.
+	 * Set to 1 to create them on the calling thread.
+	 */
+	private static final int PACK_CREATION_THREADS = Math.max(1, Integer.getInteger("fabric.resource.packCreationThreads", Math.min(Runtime.getRuntime().availableProcessors(), 8)));
+	@Nullable
+	private static ForkJoinPool packCreationPool;
 
 	private ModResourcePackUtil() {
 	}
@@ -76,17 +86,64 @@ public final class ModResourcePackUtil {
 	 * @param subPath the resource pack sub path directory in mods, may be {@code null}
 	 */
 	public static void appendModResourcePacks(List<ModResourcePack> packs, ResourceType type, @Nullable String subPath) {
+		List<ModContainer> containers = new ArrayList<>();
+
 		for (ModContainer container : FabricLoader.getInstance().getAllMods()) {
-			if (container.getMetadata().getType().equals("builtin")) {
-				continue;
+			if (!container.getMetadata().getType().equals("builtin")) {
+				containers.add(container);
 			}
+		}
 
-			ModResourcePack pack = ModNioResourcePack.create(container.getMetadata().getId(), container, subPath, type, ResourcePackActivationType.ALWAYS_ENABLED, true);
+		if (PACK_CREATION_THREADS == 1 || containers.size() < 2) {
+			for (ModContainer container : containers) {
+				ModResourcePack pack = createModResourcePack(container, type, subPath);
 
-			if (pack != null) {
-				packs.add(pack);
+				if (pack != null) {
+					packs.add(pack);
+				}
 			}
+		} else {
+			// Scanning the namespaces of each mod is independent, but the packs must keep the order of the mods.
+			ForkJoinPool pool = getPackCreationPool();
+			List<ForkJoinTask<ModResourcePack>> tasks = new ArrayList<>(containers.size());
+
+			for (ModContainer container : containers) {
+				tasks.add(pool.submit(() -> createModResourcePack(container, type, subPath)));
+			}
+
+			for (ForkJoinTask<ModResourcePack> task : tasks) {
+				ModResourcePack pack = task.join();
+
+				if (pack != null) {
+					packs.add(pack);
+				}
+			}
+		}
+
+		if (ModResourceIndexCache.ENABLED) {
+			ModResourceIndexCache.get().save();
+		}
+	}
+
+	@Nullable
+	private static ModResourcePack createModResourcePack(ModContainer container, ResourceType type, @Nullable String subPath) {
+		return ModNioResourcePack.create(container.getMetadata().getId(), container, subPath, type, ResourcePackActivationType.ALWAYS_ENABLED, true);
+	}
+
+	private static synchronized ForkJoinPool getPackCreationPool() {
+		if (packCreationPool == null) {
+			ClassLoader classLoader = ModResourcePackUtil.class.getClassLoader();
+
+			// Idle threads are stopped by the pool, so it can be kept for later reloads.
+			packCreationPool = new ForkJoinPool(PACK_CREATION_THREADS, pool -> {
+				ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+				thread.setName("Fabric Resource Pack Creation " + thread.getPoolIndex());
+				thread.setContextClassLoader(classLoader);
+				return thread;
+			}, null, false);
 		}
+
+		return packCreationPool;
 	}
 
 	public static void refreshAutoEnabledPacks(List<ResourcePackProfile> enabledProfiles, Map<String, ResourcePackProfile> allProfiles) {
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.resource.loader;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Immutable, sorted listing of the files of a resource directory and of the files directly under a root path,
+ * used to look up files of mod resource packs without probing or walking the file system.
+ *
+ * <p>Paths are relative to the root and use {@code /} as separator.
+ * Files sharing a prefix are adjacent, so files under a directory are found with two binary searches.
+ * Only the resource directory of one {@link net.minecraft.resource.ResourceType} is listed, so that the classes
+ * and the resources of the other type of a mod jar aren't walked; use {@link #covers(String)} before looking up a path.
+ */
+public final class ModResourcePathIndex {
+	private final String directory;
+	private final String[] files;
+
+	/**
+	 * @param directory the indexed directory, relative to the root
+	 * @param files the relative paths of the files, sorted in natural order
+	 */
+	public ModResourcePathIndex(String directory, String[] files) {
+		this.directory = directory;
+		this.files = files;
+	}
+
+	/**
+	 * Lists every regular file under the given directory of the root path, and the regular files directly in the root path.
+	 *
+	 * @param directory a relative path, without trailing separator, that does not need to exist
+	 */
+	public static ModResourcePathIndex build(Path root, String directory) throws IOException {
+		List<String> files = new ArrayList<>();
+		String separator = root.getFileSystem().getSeparator();
+
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(root, Files::isRegularFile)) {
+			for (Path file : stream) {
+				files.add(root.relativize(file).toString().replace(separator, "/"));
+			}
+		}
+
+		Path dir = root.resolve(directory.replace("/", separator));
+
+		if (Files.isDirectory(dir)) {
+			Files.walkFileTree(dir, new SimpleFileVisitor<>() {
+				@Override
+				public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+					if (attrs.isRegularFile()) {
+						files.add(root.relativize(file).toString().replace(separator, "/"));
+					}
+
+					return FileVisitResult.CONTINUE;
+				}
+			});
+		}
+
+		String[] sorted = files.toArray(new String[0]);
+		Arrays.sort(sorted);
+		return new ModResourcePathIndex(directory, sorted);
+	}
+
+	/**
+	 * Returns whether the index lists the files at the given relative path, which is the case of the indexed directory,
+	 * paths under it and files directly in the root. Other paths must be looked up on the file system.
+	 */
+	public boolean covers(String path) {
+		return path.indexOf('/') < 0 || (path.startsWith(directory) && path.length() > directory.length() && path.charAt(directory.length()) == '/');
+	}
+
+	public String getDirectory() {
+		return directory;
+	}
+
+	public boolean contains(String file) {
+		return Arrays.binarySearch(files, file) >= 0;
+	}
+
+	/**
+	 * Calls the consumer with the given path if it's a file, then with every file under the given path, in sorted order.
+	 *
+	 * @param path a relative path, without trailing separator
+	 */
+	public void forEachUnder(String path, Consumer<String> consumer) {
+		if (path.isEmpty()) {
+			for (String file : files) {
+				consumer.accept(file);
+			}
+
+			return;
+		}
+
+		if (contains(path)) {
+			consumer.accept(path);
+		}
+
+		// Files under the directory are adjacent, right after where "path/" would be inserted.
+		String prefix = path + "/";
+		int start = insertionPoint(prefix);
+
+		for (int i = start; i < files.length && files[i].startsWith(prefix); i++) {
+			consumer.accept(files[i]);
+		}
+	}
+
+	public String[] getFiles() {
+		return files.clone();
+	}
+
+	private int insertionPoint(String key) {
+		int index = Arrays.binarySearch(files, key);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * Returns whether a relative path can be looked up in the index as is,
+	 * which is not the case of paths that would be changed by normalization.
+	 */
+	public static boolean isNormalized(String path) {
+		int start = 0;
+
+		while (true) {
+			int end = path.indexOf('/', start);
+			int length = (end < 0 ? path.length() : end) - start;
+
+			// Empty segments come from leading, trailing or repeated separators.
+			if (length == 0 || (length <= 2 && path.charAt(start) == '.' && (length == 1 || path.charAt(start + 1) == '.'))) {
+				return false;
+			}
+
+			if (end < 0) {
+				return true;
+			}
+
+			start = end + 1;
+		}
+	}
+}
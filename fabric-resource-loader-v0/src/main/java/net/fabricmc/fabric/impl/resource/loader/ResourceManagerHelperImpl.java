@@ -19,6 +19,7 @@ package net.fabricmc.fabric.impl.resource.loader;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -51,12 +52,19 @@ import net.minecraft.util.Pair;
 import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
 import net.fabricmc.fabric.api.resource.ResourceManagerHelper;
 import net.fabricmc.fabric.api.resource.ResourcePackActivationType;
+import net.fabricmc.fabric.impl.base.toposort.NodeSorting;
+import net.fabricmc.fabric.impl.base.toposort.SortableNode;
 import net.fabricmc.loader.api.ModContainer;
 
 public class ResourceManagerHelperImpl implements ResourceManagerHelper {
 	private static final Map<ResourceType, ResourceManagerHelperImpl> registryMap = new HashMap<>();
 	private static final Set<Pair<Text, ModNioResourcePack>> builtinResourcePacks = new HashSet<>();
 	private static final Logger LOGGER = LoggerFactory.getLogger(ResourceManagerHelperImpl.class);
+	/**
+	 * Forces the profiled resource reload, which logs the time each listener spent preparing and applying,
+	 * without enabling debug logging.
+	 */
+	public static final boolean PROFILE_RELOAD = Boolean.getBoolean("fabric.resource.profileReload");
 
 	private final Set<Identifier> addedListenerIds = new HashSet<>();
 	private final Set<ListenerFactory> listenerFactories = new LinkedHashSet<>();
@@ -201,34 +209,93 @@ public class ResourceManagerHelperImpl implements ResourceManagerHelper {
 		addedListeners.clear();
 		addedListeners.addAll(listenersToAdd);
 
-		Set<Identifier> resolvedIds = new HashSet<>();
+		Set<Identifier> vanillaIds = new HashSet<>();
 
 		for (ResourceReloader listener : listeners) {
 			if (listener instanceof IdentifiableResourceReloadListener) {
-				resolvedIds.add(((IdentifiableResourceReloadListener) listener).getFabricId());
+				vanillaIds.add(((IdentifiableResourceReloadListener) listener).getFabricId());
 			}
 		}
 
-		int lastSize = -1;
+		listeners.addAll(sortAddedListeners(vanillaIds, listenersToAdd));
+	}
+
+	/**
+	 * Sorts the added listeners after their dependencies.
+	 *
+	 * <p>Listeners with a dependency that is neither a vanilla listener nor an added listener are dropped,
+	 * and so are the listeners depending on them. Listeners in a dependency cycle are kept, in registration order,
+	 * and a listener may depend on itself. Independent listeners keep their registration order.
+	 *
+	 * @param vanillaIds the ids of the vanilla listeners, which run before all added listeners
+	 * @param addedListeners the added listeners, in registration order
+	 * @return the added listeners that can run, in the order they run
+	 */
+	public static List<IdentifiableResourceReloadListener> sortAddedListeners(Set<Identifier> vanillaIds, List<IdentifiableResourceReloadListener> addedListeners) {
+		Map<Identifier, ListenerNode> nodes = new HashMap<>();
+		List<ListenerNode> sortedNodes = new ArrayList<>(addedListeners.size());
+
+		for (IdentifiableResourceReloadListener listener : addedListeners) {
+			ListenerNode node = new ListenerNode(listener, sortedNodes.size());
+			nodes.put(listener.getFabricId(), node);
+			sortedNodes.add(node);
+		}
+
+		// Drop listeners with a dependency that is neither a vanilla listener nor an added listener,
+		// then the listeners depending on dropped listeners, until no listener is dropped.
+		boolean dropped = true;
+
+		while (dropped) {
+			dropped = false;
 
-		while (listeners.size() != lastSize) {
-			lastSize = listeners.size();
+			for (Iterator<ListenerNode> it = sortedNodes.iterator(); it.hasNext(); ) {
+				ListenerNode node = it.next();
 
-			Iterator<IdentifiableResourceReloadListener> it = listenersToAdd.iterator();
+				for (Identifier dependency : node.listener.getFabricDependencies()) {
+					if (!vanillaIds.contains(dependency) && !nodes.containsKey(dependency)) {
+						LOGGER.warn("Could not resolve dependencies for listener: " + node.listener.getFabricId() + "!");
+						nodes.remove(node.listener.getFabricId());
+						it.remove();
+						dropped = true;
+						break;
+					}
+				}
+			}
+		}
 
-			while (it.hasNext()) {
-				IdentifiableResourceReloadListener listener = it.next();
+		for (ListenerNode node : sortedNodes) {
+			for (Identifier dependency : node.listener.getFabricDependencies()) {
+				ListenerNode dependencyNode = nodes.get(dependency);
 
-				if (resolvedIds.containsAll(listener.getFabricDependencies())) {
-					resolvedIds.add(listener.getFabricId());
-					listeners.add(listener);
-					it.remove();
+				if (dependencyNode != null && dependencyNode != node) {
+					SortableNode.link(dependencyNode, node);
 				}
 			}
 		}
 
-		for (IdentifiableResourceReloadListener listener : listenersToAdd) {
-			LOGGER.warn("Could not resolve dependencies for listener: " + listener.getFabricId() + "!");
+		// Independent listeners keep their registration order.
+		NodeSorting.sort(sortedNodes, "resource reload listeners", Comparator.comparingInt(node -> node.index));
+		List<IdentifiableResourceReloadListener> sorted = new ArrayList<>(sortedNodes.size());
+
+		for (ListenerNode node : sortedNodes) {
+			sorted.add(node.listener);
+		}
+
+		return sorted;
+	}
+
+	private static class ListenerNode extends SortableNode<ListenerNode> {
+		final IdentifiableResourceReloadListener listener;
+		final int index;
+
+		ListenerNode(IdentifiableResourceReloadListener listener, int index) {
+			this.listener = listener;
+			this.index = index;
+		}
+
+		@Override
+		protected String getDescription() {
+			return listener.getFabricId().toString();
 		}
 	}
 
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.resource.loader.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.fabric.impl.resource.loader.ModResourceIndexCache;
+
+public class ModResourceIndexCacheTests {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testRoundTrip() throws IOException {
+		Map<String, ModResourceIndexCache.Entry> entries = createEntries();
+		Map<String, ModResourceIndexCache.Entry> read = ModResourceIndexCache.read(ModResourceIndexCache.write(entries));
+
+		assertEquals(entries.keySet(), read.keySet());
+
+		entries.forEach((key, entry) -> {
+			ModResourceIndexCache.Entry readEntry = read.get(key);
+			assertEquals(entry.jar(), readEntry.jar());
+			assertEquals(entry.size(), readEntry.size());
+			assertEquals(entry.modified(), readEntry.modified());
+			assertArrayEquals(entry.files(), readEntry.files());
+		});
+	}
+
+	@Test
+	void testRoundTripEmpty() throws IOException {
+		assertTrue(ModResourceIndexCache.read(ModResourceIndexCache.write(Map.of())).isEmpty());
+	}
+
+	@Test
+	void testCorrupt() throws IOException {
+		byte[] data = ModResourceIndexCache.write(createEntries());
+		data[data.length / 2] ^= 1;
+
+		assertThrows(IllegalArgumentException.class, () -> ModResourceIndexCache.read(data));
+		assertTrue(load(data).isEmpty());
+	}
+
+	@Test
+	void testTruncated() throws IOException {
+		byte[] data = ModResourceIndexCache.write(createEntries());
+
+		// Without a matching checksum, then with one so that reading runs out of data.
+		byte[] truncated = Arrays.copyOf(data, data.length - 10);
+		byte[] truncatedWithChecksum = withChecksum(Arrays.copyOf(data, data.length - 10));
+
+		assertThrows(RuntimeException.class, () -> ModResourceIndexCache.read(truncated));
+		assertThrows(RuntimeException.class, () -> ModResourceIndexCache.read(truncatedWithChecksum));
+		assertThrows(RuntimeException.class, () -> ModResourceIndexCache.read(new byte[3]));
+		assertTrue(load(truncated).isEmpty());
+		assertTrue(load(truncatedWithChecksum).isEmpty());
+	}
+
+	@Test
+	void testWrongVersion() throws IOException {
+		byte[] data = ModResourceIndexCache.write(createEntries());
+		// The version follows the magic.
+		ByteBuffer.wrap(data).putInt(4, ByteBuffer.wrap(data).getInt(4) + 1);
+		byte[] otherVersion = withChecksum(Arrays.copyOf(data, data.length - 4));
+
+		assertThrows(IllegalArgumentException.class, () -> ModResourceIndexCache.read(otherVersion));
+		assertTrue(load(otherVersion).isEmpty());
+	}
+
+	@Test
+	void testMissingFile() {
+		assertTrue(ModResourceIndexCache.load(tempDir.resolve("missing.bin")).isEmpty());
+	}
+
+	private Map<String, ModResourceIndexCache.Entry> load(byte[] data) throws IOException {
+		Path file = tempDir.resolve("resource-index-cache.bin");
+		Files.write(file, data);
+		return ModResourceIndexCache.load(file);
+	}
+
+	private static Map<String, ModResourceIndexCache.Entry> createEntries() {
+		Map<String, ModResourceIndexCache.Entry> entries = new HashMap<>();
+		entries.put("/mods/a.jar!/!assets", new ModResourceIndexCache.Entry("/mods/a.jar", 1234, 5678, new String[] {
+				"assets/a/lang/en_us.json",
+				"assets/a/textures/block/a.png",
+				"assets/a/textures/block/b.png",
+				// Both share the high surrogate of their first character, which must not be split from its low surrogate.
+				"assets/a/textures/block/\uD83D\uDE00.png",
+				"assets/a/textures/block/\uD83D\uDE01.png",
+				"fabric.mod.json"
+		}));
+		entries.put("/mods/b.jar!/!data", new ModResourceIndexCache.Entry("/mods/b.jar", 0, -1, new String[0]));
+		return entries;
+	}
+
+	/**
+	 * Appends the checksum of the data, so that reading it fails on its contents rather than on the checksum.
+	 */
+	private static byte[] withChecksum(byte[] data) {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		return ByteBuffer.allocate(data.length + 4).put(data).putInt((int) crc.getValue()).array();
+	}
+}
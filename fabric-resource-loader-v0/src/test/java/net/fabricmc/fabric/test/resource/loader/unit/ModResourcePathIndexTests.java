@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.resource.loader.unit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import net.fabricmc.fabric.impl.resource.loader.ModResourcePathIndex;
+
+public class ModResourcePathIndexTests {
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void testIndexZip() throws IOException {
+		Path zip = tempDir.resolve("mod.jar");
+
+		try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+			for (String file : List.of("fabric.mod.json", "net/fabricmc/Mod.class", "assets/mod/lang/en_us.json", "assets/mod/textures/block/a.png", "assets/mod/textures/block/b.png", "assets/mod/textures.json", "data/mod/recipe/a.json")) {
+				out.putNextEntry(new ZipEntry(file));
+				out.write(1);
+				out.closeEntry();
+			}
+
+			out.putNextEntry(new ZipEntry("assets/mod/empty/"));
+			out.closeEntry();
+		}
+
+		try (FileSystem fs = FileSystems.newFileSystem(zip)) {
+			ModResourcePathIndex index = ModResourcePathIndex.build(fs.getPath("/"), "assets");
+
+			// Classes and data aren't indexed, files directly in the root are.
+			assertArrayEquals(new String[] {
+					"assets/mod/lang/en_us.json",
+					"assets/mod/textures.json",
+					"assets/mod/textures/block/a.png",
+					"assets/mod/textures/block/b.png",
+					"fabric.mod.json"
+			}, index.getFiles());
+
+			assertTrue(index.covers("assets/mod/lang/en_us.json"));
+			assertTrue(index.covers("pack.mcmeta"));
+			assertFalse(index.covers("data/mod/recipe/a.json"));
+			assertFalse(index.covers("assetsx/mod/a.json"));
+			assertFalse(index.covers("net/fabricmc/Mod.class"));
+
+			assertTrue(index.contains("assets/mod/lang/en_us.json"));
+			assertFalse(index.contains("assets/mod/lang"));
+			assertFalse(index.contains("assets/mod/empty"));
+
+			assertEquals(List.of("assets/mod/textures/block/a.png", "assets/mod/textures/block/b.png"), collect(index, "assets/mod/textures"));
+			assertEquals(List.of("assets/mod/textures.json"), collect(index, "assets/mod/textures.json"));
+			assertEquals(List.of(), collect(index, "assets/mod/empty"));
+			assertEquals(5, collect(index, "").size());
+			assertArrayEquals(new String[] {"fabric.mod.json"}, ModResourcePathIndex.build(fs.getPath("/"), "missing").getFiles());
+		}
+	}
+
+	@Test
+	void testIsNormalized() {
+		assertTrue(ModResourcePathIndex.isNormalized("assets/mod/textures/a.png"));
+		assertTrue(ModResourcePathIndex.isNormalized("assets/mod/.hidden"));
+		assertTrue(ModResourcePathIndex.isNormalized("assets/mod/a..b"));
+		assertFalse(ModResourcePathIndex.isNormalized(""));
+		assertFalse(ModResourcePathIndex.isNormalized("/assets/mod"));
+		assertFalse(ModResourcePathIndex.isNormalized("assets/mod/"));
+		assertFalse(ModResourcePathIndex.isNormalized("assets//mod"));
+		assertFalse(ModResourcePathIndex.isNormalized("assets/./mod"));
+		assertFalse(ModResourcePathIndex.isNormalized("assets/mod/../other"));
+		assertFalse(ModResourcePathIndex.isNormalized(".."));
+	}
+
+	private static List<String> collect(ModResourcePathIndex index, String path) {
+		List<String> files = new ArrayList<>();
+		index.forEachUnder(path, files::add);
+		return files;
+	}
+}
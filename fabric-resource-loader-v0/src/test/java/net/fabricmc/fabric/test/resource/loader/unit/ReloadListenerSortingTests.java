@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.resource.loader.unit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import net.minecraft.resource.ResourceManager;
+import net.minecraft.util.Identifier;
+
+import net.fabricmc.fabric.api.resource.IdentifiableResourceReloadListener;
+import net.fabricmc.fabric.api.resource.SimpleSynchronousResourceReloadListener;
+import net.fabricmc.fabric.impl.resource.loader.ResourceManagerHelperImpl;
+
+public class ReloadListenerSortingTests {
+	private static final Identifier VANILLA = Identifier.of("minecraft", "vanilla");
+	private static final Identifier UNKNOWN = id("unknown");
+
+	@Test
+	void testUnknownDependenciesCascade() {
+		// Registered in reverse dependency order, so that dropping them takes several passes.
+		var c = listener("c", id("b"));
+		var b = listener("b", id("a"));
+		var a = listener("a", UNKNOWN);
+		var d = listener("d");
+		var e = listener("e", VANILLA);
+
+		assertEquals(List.of(d, e), sort(c, b, a, d, e));
+	}
+
+	@Test
+	void testCycles() {
+		var x = listener("x", id("a"));
+		var b = listener("b", id("a"));
+		var a = listener("a", id("b"));
+		var c = listener("c");
+		var self = listener("self", id("self"));
+
+		// The members of the cycle are kept in registration order, and the listeners depending on it run after it.
+		assertEquals(List.of(b, a, x, c, self), sort(x, b, a, c, self));
+	}
+
+	@Test
+	void testCycleWithUnknownDependency() {
+		var a = listener("a", id("b"));
+		var b = listener("b", id("a"), UNKNOWN);
+		var c = listener("c");
+
+		assertEquals(List.of(c), sort(a, b, c));
+	}
+
+	@Test
+	void testRegistrationOrderTieBreak() {
+		var z = listener("z");
+		var y = listener("y");
+		var x = listener("x");
+
+		assertEquals(List.of(z, y, x), sort(z, y, x));
+
+		var first = listener("first", id("last"));
+		var second = listener("second", VANILLA);
+		var last = listener("last");
+
+		assertEquals(List.of(second, last, first), sort(first, second, last));
+	}
+
+	private static List<IdentifiableResourceReloadListener> sort(IdentifiableResourceReloadListener... listeners) {
+		return ResourceManagerHelperImpl.sortAddedListeners(Set.of(VANILLA), List.of(listeners));
+	}
+
+	private static TestListener listener(String path, Identifier... dependencies) {
+		return new TestListener(id(path), List.of(dependencies));
+	}
+
+	private static Identifier id(String path) {
+		return Identifier.of("test", path);
+	}
+
+	private record TestListener(Identifier id, List<Identifier> dependencies) implements SimpleSynchronousResourceReloadListener {
+		@Override
+		public Identifier getFabricId() {
+			return id;
+		}
+
+		@Override
+		public Collection<Identifier> getFabricDependencies() {
+			return dependencies;
+		}
+
+		@Override
+		public void reload(ResourceManager manager) {
+		}
+	}
+}
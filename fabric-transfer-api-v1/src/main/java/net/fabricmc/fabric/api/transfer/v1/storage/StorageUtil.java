@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.function.Predicate;
 
+import it.unimi.dsi.fastutil.objects.Object2LongLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
 import org.jetbrains.annotations.Nullable;
 
 import net.minecraft.inventory.Inventory;
@@ -125,6 +127,89 @@ public final class StorageUtil {
 		return totalMoved;
 	}
 
+	/**
+	 * Move resources between two storages, matching the passed filter, and return the amount that was successfully transferred.
+	 * This is a bulk version of {@link #move}, better suited for moving many resources at once, such as emptying a full chest.
+	 *
+	 * <p>Unlike {@link #move}, which performs one transfer per non-empty view of the source storage,
+	 * this function first groups the views of the source storage by resource.
+	 * It then transfers each distinct resource with a single extraction simulation, insertion and extraction,
+	 * using {@link Storage#extract} on the source storage rather than the individual views.
+	 * All the transfers happen in a single nested transaction, which is committed once at the end.
+	 *
+	 * <p>Resources are transferred in the order in which they first appear in the source storage.
+	 *
+	 * @param from The source storage. May be null.
+	 * @param to The target storage. May be null.
+	 * @param filter The filter for transferred resources.
+	 *               Only resources for which this filter returns {@code true} will be transferred.
+	 *               This filter will never be tested with a blank resource, and filters are encouraged to throw an
+	 *               exception if this guarantee is violated.
+	 * @param maxAmount The maximum amount that will be transferred.
+	 * @param transaction The transaction this transfer is part of, or {@code null} if a transaction should be opened just for this transfer.
+	 * @param <T> The type of resources to move.
+	 * @return The total amount of resources that was successfully transferred.
+	 * @throws IllegalStateException If no transaction is passed and a transaction is already active on the current thread.
+	 */
+	public static <T> long moveBulk(@Nullable Storage<T> from, @Nullable Storage<T> to, Predicate<T> filter, long maxAmount, @Nullable TransactionContext transaction) {
+		Objects.requireNonNull(filter, "Filter may not be null");
+		if (from == null || to == null) return 0;
+
+		long totalMoved = 0;
+
+		try (Transaction iterationTransaction = Transaction.openNested(transaction)) {
+			// Group the stored amounts by resource, before any modification.
+			Object2LongLinkedOpenHashMap<T> storedAmounts = new Object2LongLinkedOpenHashMap<>();
+
+			for (StorageView<T> view : from.nonEmptyViews()) {
+				T resource = view.getResource();
+				if (!filter.test(resource)) continue;
+
+				// Saturate, since infinite storages can report Long.MAX_VALUE in more than one view.
+				long stored = storedAmounts.getLong(resource);
+				storedAmounts.put(resource, stored + Math.min(Long.MAX_VALUE - stored, view.getAmount()));
+			}
+
+			for (Object2LongMap.Entry<T> entry : storedAmounts.object2LongEntrySet()) {
+				T resource = entry.getKey();
+				long stored = Math.min(entry.getLongValue(), maxAmount - totalMoved);
+
+				// check how much can be extracted
+				long maxExtracted = simulateExtract(from, resource, stored, iterationTransaction);
+				if (maxExtracted == 0) continue;
+
+				try (Transaction transferTransaction = iterationTransaction.openNested()) {
+					// check how much can be inserted
+					long accepted = to.insert(resource, maxExtracted, transferTransaction);
+
+					// extract it, or rollback if the amounts don't match
+					if (accepted > 0 && from.extract(resource, accepted, transferTransaction) == accepted) {
+						totalMoved += accepted;
+						transferTransaction.commit();
+					}
+				}
+
+				if (maxAmount == totalMoved) {
+					// early return if nothing can be moved anymore
+					break;
+				}
+			}
+
+			iterationTransaction.commit();
+		} catch (Exception e) {
+			CrashReport report = CrashReport.create(e, "Moving resources between storages in bulk");
+			report.addElement("Move details")
+					.add("Input storage", from::toString)
+					.add("Output storage", to::toString)
+					.add("Filter", filter::toString)
+					.add("Max amount", maxAmount)
+					.add("Transaction", transaction);
+			throw new CrashException(report);
+		}
+
+		return totalMoved;
+	}
+
 	/**
 	 * Convenient helper to simulate an insertion, i.e. get the result of insert without modifying any state.
 	 * The passed transaction may be null if a new transaction should be opened for the simulation.
@@ -20,6 +20,7 @@ import java.util.function.Supplier;
 
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.DataResult;
+import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -51,6 +52,8 @@ public abstract class SingleVariantStorage<T extends TransferVariant<?>> extends
 
 	public T variant = getBlankVariant();
 	public long amount = 0;
+	@Nullable
+	private ResourceAmount<T> lastSnapshot = null;
 
 	/**
 	 * Return the blank variant.
@@ -148,7 +151,15 @@ public abstract class SingleVariantStorage<T extends TransferVariant<?>> extends
 
 	@Override
 	protected ResourceAmount<T> createSnapshot() {
-		return new ResourceAmount<>(variant, amount);
+		// Snapshots are immutable: reuse the last one if the state didn't change since then,
+		// which is typically the case after an aborted simulation.
+		ResourceAmount<T> snapshot = lastSnapshot;
+
+		if (snapshot == null || snapshot.resource() != variant || snapshot.amount() != amount) {
+			snapshot = lastSnapshot = new ResourceAmount<>(variant, amount);
+		}
+
+		return snapshot;
 	}
 
 	@Override
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.api.transfer.v1.transaction.base;
+
+import java.util.Arrays;
+
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+
+/**
+ * Shared nesting logic of {@link LongSnapshotParticipant} and {@link ResourceAmountSnapshotParticipant},
+ * which store their snapshots in arrays indexed by transaction depth and reuse them across transactions.
+ * This is the same logic as in {@link SnapshotParticipant}, operating on depths instead of snapshot objects.
+ */
+final class ArraySnapshotDepths {
+	/**
+	 * The operations of a participant on its snapshot arrays.
+	 */
+	interface Snapshots {
+		/**
+		 * Grow the snapshot arrays to the given length, keeping their contents.
+		 */
+		void grow(int length);
+
+		/**
+		 * Save the current state in the snapshot arrays at the given depth.
+		 */
+		void save(int depth);
+
+		/**
+		 * Roll back to the state saved at the given depth.
+		 */
+		void restore(int depth);
+
+		/**
+		 * Copy the snapshot at depth {@code from} to depth {@code to}.
+		 */
+		void move(int from, int to);
+
+		/**
+		 * Clear any reference held by the snapshot at the given depth.
+		 */
+		void clear(int depth);
+	}
+
+	private final Snapshots snapshots;
+	/**
+	 * Whether a snapshot is stored at each nesting depth.
+	 */
+	private boolean[] hasSnapshot = new boolean[0];
+
+	ArraySnapshotDepths(Snapshots snapshots) {
+		this.snapshots = snapshots;
+	}
+
+	/**
+	 * Save a snapshot at the depth of the transaction if there is none yet, and register the participant to be notified of its closing.
+	 */
+	void update(TransactionContext transaction, Transaction.CloseCallback participant) {
+		int depth = transaction.nestingDepth();
+
+		// Make sure we have enough storage for snapshots
+		if (depth >= hasSnapshot.length) {
+			int length = Math.max(depth + 1, hasSnapshot.length * 2);
+			hasSnapshot = Arrays.copyOf(hasSnapshot, length);
+			snapshots.grow(length);
+		}
+
+		// If there is no snapshot yet, we need to save it, and we need to register a callback.
+		if (!hasSnapshot[depth]) {
+			snapshots.save(depth);
+			hasSnapshot[depth] = true;
+			transaction.addCloseCallback(participant);
+		}
+	}
+
+	/**
+	 * Roll back to or move up the snapshot of a closing transaction.
+	 * The participant is registered to be notified when the outer transaction is committed.
+	 */
+	<P extends Transaction.CloseCallback & Transaction.OuterCloseCallback> void close(TransactionContext transaction, Transaction.Result result, P participant) {
+		int depth = transaction.nestingDepth();
+		hasSnapshot[depth] = false;
+
+		if (result.wasAborted()) {
+			// If the transaction was aborted, we just revert to the state of the snapshot.
+			snapshots.restore(depth);
+		} else if (depth > 0) {
+			if (!hasSnapshot[depth - 1]) {
+				// No snapshot yet, so move the snapshot one nesting level up.
+				snapshots.move(depth, depth - 1);
+				hasSnapshot[depth - 1] = true;
+				// This is the first snapshot at this level: we need to call addCloseCallback.
+				transaction.getOpenTransaction(depth - 1).addCloseCallback(participant);
+			}
+
+			// Otherwise there is already an older snapshot at the nesting level above, and the newer one is simply dropped.
+		} else {
+			transaction.addOuterCloseCallback(participant);
+		}
+
+		snapshots.clear(depth);
+	}
+}
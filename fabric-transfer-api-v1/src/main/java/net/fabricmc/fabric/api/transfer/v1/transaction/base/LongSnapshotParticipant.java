@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.api.transfer.v1.transaction.base;
+
+import java.util.Arrays;
+
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+
+/**
+ * A participant whose state fits in a single {@code long}, for example a counter or an amount.
+ * It replaces {@code SnapshotParticipant<Long>}, which boxes every snapshot:
+ * here the snapshots are stored in a {@code long[]} indexed by transaction depth, so no snapshot object is ever allocated.
+ *
+ * <h3>How to use from subclasses</h3>
+ * <ul>
+ *     <li>Call {@link #updateSnapshots} right before the state of your subclass is modified in a transaction.</li>
+ *     <li>Override {@link #createSnapshot}: it is called when necessary to save the state of your subclass.</li>
+ *     <li>Override {@link #readSnapshot}: it is called when necessary to revert to a previous state of your subclass.</li>
+ *     <li>You may optionally override {@link #onFinalCommit}: it is called at the end of a transaction that modified the state.
+ *     For example, it could contain a call to {@code markDirty()}.</li>
+ * </ul>
+ */
+public abstract class LongSnapshotParticipant implements Transaction.CloseCallback, Transaction.OuterCloseCallback {
+	private long[] snapshots = new long[0];
+	private final ArraySnapshotDepths depths = new ArraySnapshotDepths(new ArraySnapshotDepths.Snapshots() {
+		@Override
+		public void grow(int length) {
+			snapshots = Arrays.copyOf(snapshots, length);
+		}
+
+		@Override
+		public void save(int depth) {
+			snapshots[depth] = createSnapshot();
+		}
+
+		@Override
+		public void restore(int depth) {
+			readSnapshot(snapshots[depth]);
+		}
+
+		@Override
+		public void move(int from, int to) {
+			snapshots[to] = snapshots[from];
+		}
+
+		@Override
+		public void clear(int depth) {
+		}
+	});
+
+	/**
+	 * Return the current state of this participant.
+	 */
+	protected abstract long createSnapshot();
+
+	/**
+	 * Roll back to a state previously returned by {@link #createSnapshot}.
+	 */
+	protected abstract void readSnapshot(long snapshot);
+
+	/**
+	 * Called after an outer transaction succeeded,
+	 * to perform irreversible actions such as {@code markDirty()} or neighbor updates.
+	 */
+	protected void onFinalCommit() {
+	}
+
+	/**
+	 * Update the stored snapshots so that the changes happening as part of the passed transaction can be correctly
+	 * committed or rolled back.
+	 * This function should be called every time the participant is about to change its internal state as part of a transaction.
+	 */
+	public void updateSnapshots(TransactionContext transaction) {
+		depths.update(transaction, this);
+	}
+
+	@Override
+	public void onClose(TransactionContext transaction, Transaction.Result result) {
+		depths.close(transaction, result, this);
+	}
+
+	@Override
+	public void afterOuterClose(Transaction.Result result) {
+		// The result is guaranteed to be COMMITTED,
+		// as this is only scheduled during onClose() when the outer transaction is successful.
+		onFinalCommit();
+	}
+}
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.api.transfer.v1.transaction.base;
+
+import java.util.Arrays;
+
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+
+/**
+ * A participant whose state is a resource and a {@code long} amount, such as a storage holding a single variant.
+ * It replaces {@code SnapshotParticipant<ResourceAmount<T>>}, which allocates a {@code ResourceAmount} for every snapshot:
+ * here the snapshots are stored in parallel arrays indexed by transaction depth, so no snapshot object is ever allocated.
+ *
+ * <h3>How to use from subclasses</h3>
+ * <ul>
+ *     <li>Call {@link #updateSnapshots} right before the state of your subclass is modified in a transaction.</li>
+ *     <li>Override {@link #getSnapshotResource} and {@link #getSnapshotAmount}:
+ *     they are called when necessary to save the state of your subclass.</li>
+ *     <li>Override {@link #readSnapshot}: it is called when necessary to revert to a previous state of your subclass.</li>
+ *     <li>You may optionally override {@link #onFinalCommit}: it is called at the end of a transaction that modified the state.
+ *     For example, it could contain a call to {@code markDirty()}.</li>
+ * </ul>
+ *
+ * @param <T> The type of the resource.
+ */
+public abstract class ResourceAmountSnapshotParticipant<T> implements Transaction.CloseCallback, Transaction.OuterCloseCallback {
+	private Object[] snapshotResources = new Object[0];
+	private long[] snapshotAmounts = new long[0];
+	private final ArraySnapshotDepths depths = new ArraySnapshotDepths(new ArraySnapshotDepths.Snapshots() {
+		@Override
+		public void grow(int length) {
+			snapshotResources = Arrays.copyOf(snapshotResources, length);
+			snapshotAmounts = Arrays.copyOf(snapshotAmounts, length);
+		}
+
+		@Override
+		public void save(int depth) {
+			snapshotResources[depth] = getSnapshotResource();
+			snapshotAmounts[depth] = getSnapshotAmount();
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public void restore(int depth) {
+			readSnapshot((T) snapshotResources[depth], snapshotAmounts[depth]);
+		}
+
+		@Override
+		public void move(int from, int to) {
+			snapshotResources[to] = snapshotResources[from];
+			snapshotAmounts[to] = snapshotAmounts[from];
+		}
+
+		@Override
+		public void clear(int depth) {
+			// Don't keep the resource alive.
+			snapshotResources[depth] = null;
+		}
+	});
+
+	/**
+	 * Return the current resource of this participant.
+	 */
+	protected abstract T getSnapshotResource();
+
+	/**
+	 * Return the current amount of this participant.
+	 */
+	protected abstract long getSnapshotAmount();
+
+	/**
+	 * Roll back to a state previously returned by {@link #getSnapshotResource} and {@link #getSnapshotAmount}.
+	 */
+	protected abstract void readSnapshot(T resource, long amount);
+
+	/**
+	 * Called after an outer transaction succeeded,
+	 * to perform irreversible actions such as {@code markDirty()} or neighbor updates.
+	 */
+	protected void onFinalCommit() {
+	}
+
+	/**
+	 * Update the stored snapshots so that the changes happening as part of the passed transaction can be correctly
+	 * committed or rolled back.
+	 * This function should be called every time the participant is about to change its internal state as part of a transaction.
+	 */
+	public void updateSnapshots(TransactionContext transaction) {
+		depths.update(transaction, this);
+	}
+
+	@Override
+	public void onClose(TransactionContext transaction, Transaction.Result result) {
+		depths.close(transaction, result, this);
+	}
+
+	@Override
+	public void afterOuterClose(Transaction.Result result) {
+		// The result is guaranteed to be COMMITTED,
+		// as this is only scheduled during onClose() when the outer transaction is successful.
+		onFinalCommit();
+	}
+}
@@ -27,12 +27,15 @@ import org.jetbrains.annotations.Nullable;
 import net.minecraft.entity.player.PlayerInventory;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.inventory.SidedInventory;
+import net.minecraft.item.ItemStack;
 import net.minecraft.util.math.Direction;
 
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
 import net.fabricmc.fabric.impl.transfer.DebugMessages;
 
@@ -105,6 +108,51 @@ public class InventoryStorageImpl extends CombinedStorage<ItemVariant, SingleSlo
 		}
 	}
 
+	// Insertion and extraction look at the stack in each slot directly to skip the slots that can't accept or provide the resource,
+	// instead of going through the slot wrappers which check Inventory#isValid first.
+	// This matters for large inventories that are mostly empty or mostly full.
+	// No index of the slots is kept since inventories are freely modified outside of transactions.
+	@Override
+	public long insert(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+		StoragePreconditions.notNegative(maxAmount);
+		long amount = 0;
+		int maxCountPerStack = inventory.getMaxCountPerStack();
+
+		for (int i = 0; i < parts.size(); ++i) {
+			ItemStack stack = inventory.getStack(i);
+
+			// Same limit as InventorySlotWrapper#getCapacity, which uses the max count of the item rather than the one of the stack.
+			// Its special cases only lower the limit, so they are left to the wrapper.
+			if (!stack.isEmpty() && (stack.getCount() >= Math.min(maxCountPerStack, stack.getItem().getMaxCount()) || !resource.matches(stack))) {
+				continue;
+			}
+
+			amount += parts.get(i).insert(resource, maxAmount - amount, transaction);
+			if (amount == maxAmount) break;
+		}
+
+		return amount;
+	}
+
+	@Override
+	public long extract(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+		StoragePreconditions.notNegative(maxAmount);
+		long amount = 0;
+
+		for (int i = 0; i < parts.size(); ++i) {
+			ItemStack stack = inventory.getStack(i);
+
+			if (stack.isEmpty() || !resource.matches(stack)) {
+				continue;
+			}
+
+			amount += parts.get(i).extract(resource, maxAmount - amount, transaction);
+			if (amount == maxAmount) break;
+		}
+
+		return amount;
+	}
+
 	private InventoryStorage getSidedWrapper(@Nullable Direction direction) {
 		if (inventory instanceof SidedInventory && direction != null) {
 			return new SidedInventoryStorageImpl(this, direction);
@@ -35,11 +35,11 @@ public class ItemVariantImpl implements ItemVariant {
 		Objects.requireNonNull(item, "Item may not be null.");
 		Objects.requireNonNull(components, "Components may not be null.");
 
-		// Only tag-less or empty item variants are cached for now.
 		if (components.isEmpty() || item == Items.AIR) {
+			// Component-less or empty item variants are cached in the item.
 			return ((ItemVariantCache) item).fabric_getCachedItemVariant();
 		} else {
-			return new ItemVariantImpl(item, components);
+			return ItemVariantInterner.intern(new ItemVariantImpl(item, components));
 		}
 	}
 
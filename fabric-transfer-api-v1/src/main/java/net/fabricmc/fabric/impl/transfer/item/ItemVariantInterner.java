@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.impl.transfer.item;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import net.fabricmc.fabric.impl.transfer.TransferApiImpl;
+
+/**
+ * Thread-safe interner for the item variants that carry component changes,
+ * so that equal variants are usually the same instance and {@link ItemVariantImpl#equals} succeeds with a reference check.
+ * Variants without component changes are cached in their item directly, see {@link ItemVariantCache}.
+ *
+ * <p>Variants are weakly held, so the interner only keeps the variants that are still referenced elsewhere.
+ * It is also replaced when the server stops and when the client disconnects: components can reference entries
+ * of dynamic registries, which must not be shared with the variants of the next world.
+ * Variants interned before that remain valid, they are simply not shared with variants created afterwards.
+ */
+public final class ItemVariantInterner {
+	private static volatile Interner<ItemVariantImpl> variants = Interners.newWeakInterner();
+	private static final LongAdder HITS = new LongAdder();
+	private static final LongAdder MISSES = new LongAdder();
+
+	private ItemVariantInterner() {
+	}
+
+	static ItemVariantImpl intern(ItemVariantImpl variant) {
+		ItemVariantImpl interned = variants.intern(variant);
+
+		if (interned == variant) {
+			MISSES.increment();
+		} else {
+			HITS.increment();
+		}
+
+		return interned;
+	}
+
+	/**
+	 * Return how many lookups returned an existing variant.
+	 */
+	public static long getHits() {
+		return HITS.sum();
+	}
+
+	/**
+	 * Return how many lookups added a new variant.
+	 */
+	public static long getMisses() {
+		return MISSES.sum();
+	}
+
+	/**
+	 * Called when the server stops and when the client disconnects: logs the interner metrics and forgets the interned variants.
+	 */
+	public static void clear() {
+		TransferApiImpl.LOGGER.debug("{}", describe());
+		variants = Interners.newWeakInterner();
+		HITS.reset();
+		MISSES.reset();
+	}
+
+	/**
+	 * Return a summary of the interner metrics, suitable for logging.
+	 */
+	public static String describe() {
+		long hits = getHits();
+		long total = hits + getMisses();
+		return "ItemVariantInterner[hits=%d, lookups=%d, hitRate=%.1f%%]".formatted(
+				hits, total, total == 0 ? 0.0 : 100.0 * hits / total);
+	}
+}
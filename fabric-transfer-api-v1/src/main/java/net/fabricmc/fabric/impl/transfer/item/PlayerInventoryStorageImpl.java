@@ -29,7 +29,7 @@ import net.fabricmc.fabric.api.transfer.v1.storage.StoragePreconditions;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
 import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
-import net.fabricmc.fabric.api.transfer.v1.transaction.base.SnapshotParticipant;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.LongSnapshotParticipant;
 import net.fabricmc.fabric.impl.transfer.DebugMessages;
 
 class PlayerInventoryStorageImpl extends InventoryStorageImpl implements PlayerInventoryStorage {
@@ -102,7 +102,7 @@ class PlayerInventoryStorageImpl extends InventoryStorageImpl implements PlayerI
 		return "PlayerInventoryStorage[" + DebugMessages.forInventory(playerInventory) + "]";
 	}
 
-	private class DroppedStacks extends SnapshotParticipant<Integer> {
+	private class DroppedStacks extends LongSnapshotParticipant {
 		final List<Entry> entries = new ArrayList<>();
 
 		void addDrop(ItemVariant key, long amount, boolean throwRandomly, boolean retainOwnership, TransactionContext transaction) {
@@ -111,14 +111,14 @@ class PlayerInventoryStorageImpl extends InventoryStorageImpl implements PlayerI
 		}
 
 		@Override
-		protected Integer createSnapshot() {
+		protected long createSnapshot() {
 			return entries.size();
 		}
 
 		@Override
-		protected void readSnapshot(Integer snapshot) {
+		protected void readSnapshot(long snapshot) {
 			// effectively cancel dropping the stacks
-			int previousSize = snapshot;
+			int previousSize = (int) snapshot;
 
 			while (entries.size() > previousSize) {
 				entries.remove(entries.size() - 1);
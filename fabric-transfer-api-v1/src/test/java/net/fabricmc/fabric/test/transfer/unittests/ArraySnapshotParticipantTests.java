@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2016, 2017, 2018, 2019 FabricMC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.fabricmc.fabric.test.transfer.unittests;
+
+import static net.fabricmc.fabric.test.transfer.TestUtil.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.LongSnapshotParticipant;
+import net.fabricmc.fabric.api.transfer.v1.transaction.base.ResourceAmountSnapshotParticipant;
+
+class ArraySnapshotParticipantTests {
+	@Test
+	public void testLongParticipant() {
+		LongCounter counter = new LongCounter();
+
+		try (Transaction outer = Transaction.openOuter()) {
+			counter.add(1, outer);
+
+			try (Transaction nested = outer.openNested()) {
+				counter.add(2, nested);
+
+				try (Transaction nested2 = nested.openNested()) {
+					counter.add(4, nested2);
+					// Aborted: back to 3.
+				}
+
+				assertEquals(3L, counter.value);
+				counter.add(8, nested);
+				nested.commit();
+			}
+
+			assertEquals(11L, counter.value);
+
+			try (Transaction nested = outer.openNested()) {
+				counter.add(16, nested);
+				// Aborted: back to 11.
+			}
+
+			assertEquals(11L, counter.value);
+			assertEquals(0, counter.finalCommits);
+			outer.commit();
+		}
+
+		assertEquals(11L, counter.value);
+		assertEquals(1, counter.finalCommits);
+
+		try (Transaction outer = Transaction.openOuter()) {
+			try (Transaction nested = outer.openNested()) {
+				counter.add(5, nested);
+				nested.commit();
+			}
+
+			assertEquals(16L, counter.value);
+			// Aborted: the snapshot moved up from the nested transaction must be used.
+		}
+
+		assertEquals(11L, counter.value);
+		assertEquals(1, counter.finalCommits);
+	}
+
+	@Test
+	public void testResourceAmountParticipant() {
+		ResourceSlot slot = new ResourceSlot();
+
+		try (Transaction outer = Transaction.openOuter()) {
+			slot.set("a", 1, outer);
+
+			try (Transaction nested = outer.openNested()) {
+				slot.set("b", 2, nested);
+				nested.commit();
+			}
+
+			try (Transaction nested = outer.openNested()) {
+				slot.set("c", 3, nested);
+			}
+
+			assertEquals("b", slot.resource);
+			assertEquals(2L, slot.amount);
+		}
+
+		assertEquals("", slot.resource);
+		assertEquals(0L, slot.amount);
+
+		try (Transaction outer = Transaction.openOuter()) {
+			slot.set("d", 4, outer);
+			outer.commit();
+		}
+
+		assertEquals("d", slot.resource);
+		assertEquals(4L, slot.amount);
+	}
+
+	private static class LongCounter extends LongSnapshotParticipant {
+		long value = 0;
+		int finalCommits = 0;
+
+		void add(long amount, Transaction transaction) {
+			updateSnapshots(transaction);
+			value += amount;
+		}
+
+		@Override
+		protected long createSnapshot() {
+			return value;
+		}
+
+		@Override
+		protected void readSnapshot(long snapshot) {
+			value = snapshot;
+		}
+
+		@Override
+		protected void onFinalCommit() {
+			finalCommits++;
+		}
+	}
+
+	private static class ResourceSlot extends ResourceAmountSnapshotParticipant<String> {
+		String resource = "";
+		long amount = 0;
+
+		void set(String resource, long amount, Transaction transaction) {
+			updateSnapshots(transaction);
+			this.resource = resource;
+			this.amount = amount;
+		}
+
+		@Override
+		protected String getSnapshotResource() {
+			return resource;
+		}
+
+		@Override
+		protected long getSnapshotAmount() {
+			return amount;
+		}
+
+		@Override
+		protected void readSnapshot(String resource, long amount) {
+			this.resource = resource;
+			this.amount = amount;
+		}
+	}
+}
@@ -19,7 +19,9 @@ package net.fabricmc.fabric.test.transfer.unittests;
 import static net.fabricmc.fabric.api.transfer.v1.fluid.FluidConstants.BUCKET;
 import static net.fabricmc.fabric.test.transfer.TestUtil.assertEquals;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
@@ -31,9 +33,12 @@ import net.fabricmc.fabric.api.transfer.v1.fluid.base.SingleFluidStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageView;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.FilteringStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleVariantStorage;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 
 public class BaseStorageTests extends AbstractTransferApiTest {
 	@BeforeAll
@@ -122,4 +127,95 @@ public class BaseStorageTests extends AbstractTransferApiTest {
 		// Iterator should not have a next element...
 		assertEquals(false, iterator.hasNext());
 	}
+
+	@Test
+	public void testMoveBulk() {
+		FluidVariant water = FluidVariant.of(Fluids.WATER);
+		FluidVariant lava = FluidVariant.of(Fluids.LAVA);
+
+		// Source: 2 buckets of water split over two tanks, and 1 bucket of lava.
+		List<SingleFluidStorage> sourceTanks = new ArrayList<>();
+
+		for (FluidVariant variant : List.of(water, lava, water)) {
+			SingleFluidStorage tank = SingleFluidStorage.withFixedCapacity(BUCKET, () -> { });
+			tank.variant = variant;
+			tank.amount = BUCKET;
+			sourceTanks.add(tank);
+		}
+
+		Storage<FluidVariant> source = new CombinedStorage<>(sourceTanks);
+		// Target: three tanks that can hold 1.5 buckets each.
+		List<SingleFluidStorage> targetTanks = new ArrayList<>();
+
+		for (int i = 0; i < 3; ++i) {
+			targetTanks.add(SingleFluidStorage.withFixedCapacity(BUCKET * 3 / 2, () -> { }));
+		}
+
+		Storage<FluidVariant> target = new CombinedStorage<>(targetTanks);
+
+		// Filtered and limited move.
+		assertEquals(BUCKET / 2, StorageUtil.moveBulk(source, target, fv -> fv.isOf(Fluids.WATER), BUCKET / 2, null));
+		assertEquals(BUCKET / 2, StorageUtil.simulateExtract(target, water, Long.MAX_VALUE, null));
+
+		// Move everything else: the remaining 1.5 buckets of water fill the first tank and overflow into the second one,
+		// so lava goes to the third one.
+		assertEquals(BUCKET * 5 / 2, StorageUtil.moveBulk(source, target, fv -> true, Long.MAX_VALUE, null));
+		assertEquals(BUCKET * 2, StorageUtil.simulateExtract(target, water, Long.MAX_VALUE, null));
+		assertEquals(lava, targetTanks.get(2).variant);
+		assertEquals(BUCKET, targetTanks.get(2).amount);
+		assertEquals(null, StorageUtil.findStoredResource(source));
+
+		// Nothing left to move.
+		assertEquals(0L, StorageUtil.moveBulk(source, target, fv -> true, Long.MAX_VALUE, null));
+	}
+
+	@Test
+	public void testMoveBulkFromInfiniteViews() {
+		FluidVariant water = FluidVariant.of(Fluids.WATER);
+		// Two creative-like views that both report Long.MAX_VALUE, whose sum overflows.
+		Storage<FluidVariant> source = new CombinedStorage<>(List.of(new InfiniteFluidStorage(water), new InfiniteFluidStorage(water)));
+		SingleFluidStorage target = SingleFluidStorage.withFixedCapacity(BUCKET * 4, () -> { });
+
+		assertEquals(BUCKET * 4, StorageUtil.moveBulk(source, target, fv -> true, Long.MAX_VALUE, null));
+		assertEquals(water, target.variant);
+		assertEquals(BUCKET * 4, target.amount);
+	}
+
+	private static class InfiniteFluidStorage implements SingleSlotStorage<FluidVariant> {
+		private final FluidVariant variant;
+
+		InfiniteFluidStorage(FluidVariant variant) {
+			this.variant = variant;
+		}
+
+		@Override
+		public long insert(FluidVariant resource, long maxAmount, TransactionContext transaction) {
+			return 0;
+		}
+
+		@Override
+		public long extract(FluidVariant resource, long maxAmount, TransactionContext transaction) {
+			return resource.equals(variant) ? maxAmount : 0;
+		}
+
+		@Override
+		public boolean isResourceBlank() {
+			return false;
+		}
+
+		@Override
+		public FluidVariant getResource() {
+			return variant;
+		}
+
+		@Override
+		public long getAmount() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public long getCapacity() {
+			return Long.MAX_VALUE;
+		}
+	}
 }
@@ -18,6 +18,7 @@ package net.fabricmc.fabric.test.transfer.unittests;
 
 import static net.fabricmc.fabric.test.transfer.TestUtil.assertEquals;
 
+import java.util.function.Supplier;
 import java.util.stream.IntStream;
 
 import io.netty.buffer.Unpooled;
@@ -50,6 +51,7 @@ import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedStorage;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.fabricmc.fabric.test.transfer.ingame.TransferTestInitializer;
 
@@ -245,6 +247,71 @@ class ItemTests extends AbstractTransferApiTest {
 		}
 	}
 
+	/**
+	 * Insertion and extraction skip some slots without going through their wrappers,
+	 * check that they move the same items as going through the wrapper of every slot.
+	 */
+	@Test
+	public void testSkippedSlots() {
+		ItemVariant diamond = ItemVariant.of(Items.DIAMOND);
+		ItemStack namedDiamond = new ItemStack(Items.DIAMOND, 10);
+		namedDiamond.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Named"));
+		// The wrappers limit stacks to the max count of the item, not the one set on the stack.
+		ItemStack smallStackDiamond = new ItemStack(Items.DIAMOND, 16);
+		smallStackDiamond.set(DataComponentTypes.MAX_STACK_SIZE, 16);
+
+		// Full slots.
+		assertSameAsSlots(diamond, 100, () -> new SimpleInventory(
+				new ItemStack(Items.DIAMOND, 64), new ItemStack(Items.DIAMOND, 10), ItemStack.EMPTY, new ItemStack(Items.DIAMOND, 64)));
+		assertSameAsSlots(ItemVariant.of(Items.DIAMOND_PICKAXE), 10, () -> new SimpleInventory(
+				new ItemStack(Items.DIAMOND_PICKAXE), ItemStack.EMPTY, new ItemStack(Items.DIAMOND_PICKAXE, 2), ItemStack.EMPTY));
+		assertSameAsSlots(ItemVariant.of(smallStackDiamond), 100, () -> new SimpleInventory(smallStackDiamond.copy(), ItemStack.EMPTY));
+
+		// Mismatched slots.
+		assertSameAsSlots(diamond, 100, () -> new SimpleInventory(
+				new ItemStack(Items.GOLD_INGOT, 10), namedDiamond.copy(), new ItemStack(Items.DIAMOND, 10), ItemStack.EMPTY));
+		assertSameAsSlots(ItemVariant.of(namedDiamond), 100, () -> new SimpleInventory(
+				new ItemStack(Items.DIAMOND, 10), namedDiamond.copy(), ItemStack.EMPTY));
+
+		// Capped inventories, where a slot can be full before its stack is.
+		assertSameAsSlots(diamond, 100, () -> new LimitedStackCountInventory(
+				new ItemStack(Items.DIAMOND, 3), new ItemStack(Items.DIAMOND, 1), ItemStack.EMPTY, new ItemStack(Items.GOLD_INGOT, 2)));
+		assertSameAsSlots(diamond, 100, () -> new LimitedStackCountInventory(new ItemStack(Items.DIAMOND, 10), ItemStack.EMPTY));
+	}
+
+	/**
+	 * Inserts then extracts the resource in two copies of an inventory, once through its storage
+	 * and once through the combined wrappers of its slots, and checks that the amounts and the stacks are the same.
+	 */
+	private static void assertSameAsSlots(ItemVariant resource, long maxAmount, Supplier<Inventory> inventoryFactory) {
+		Inventory inventory = inventoryFactory.get();
+		Inventory slotsInventory = inventoryFactory.get();
+		Storage<ItemVariant> storage = InventoryStorage.of(inventory, null);
+		Storage<ItemVariant> slots = new CombinedStorage<>(InventoryStorage.of(slotsInventory, null).getSlots());
+
+		try (Transaction transaction = Transaction.openOuter()) {
+			assertEquals(slots.insert(resource, maxAmount, transaction), storage.insert(resource, maxAmount, transaction));
+			transaction.commit();
+		}
+
+		assertSameStacks(slotsInventory, inventory);
+
+		try (Transaction transaction = Transaction.openOuter()) {
+			assertEquals(slots.extract(resource, maxAmount, transaction), storage.extract(resource, maxAmount, transaction));
+			transaction.commit();
+		}
+
+		assertSameStacks(slotsInventory, inventory);
+	}
+
+	private static void assertSameStacks(Inventory expected, Inventory actual) {
+		for (int i = 0; i < expected.size(); ++i) {
+			if (!ItemStack.areEqual(expected.getStack(i), actual.getStack(i))) {
+				throw new AssertionError("Slot " + i + " should contain " + expected.getStack(i) + ", but contains " + actual.getStack(i) + ".");
+			}
+		}
+	}
+
 	private static class LimitedStackCountInventory extends SimpleInventory {
 		LimitedStackCountInventory(int size) {
 			super(size);
@@ -314,4 +381,20 @@ class ItemTests extends AbstractTransferApiTest {
 			throw new AssertionError("markDirty should have been called when committing.");
 		}
 	}
+
+	@Test
+	public void testComponentVariantInterning() {
+		ItemStack named = new ItemStack(Items.DIAMOND);
+		named.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Interned"));
+
+		// Equal variants with components should be the same instance.
+		ItemVariant variant = ItemVariant.of(named);
+		Assertions.assertSame(variant, ItemVariant.of(named.copy()));
+		Assertions.assertSame(variant, ItemVariant.of(Items.DIAMOND, named.getComponentChanges()));
+
+		// Different components must still give different variants.
+		ItemStack otherName = named.copy();
+		otherName.set(DataComponentTypes.CUSTOM_NAME, Text.literal("Other"));
+		Assertions.assertNotEquals(variant, ItemVariant.of(otherName));
+	}
 }